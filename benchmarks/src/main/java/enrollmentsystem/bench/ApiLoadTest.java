@@ -0,0 +1,93 @@
+// ApiLoadTest.java
+// Throughput/latency test of the HTTP API on localhost: starts an in-process ApiServer over
+// synthetic data and drives it with concurrent keep-alive clients (enroll, drop, course lookups).
+//
+//   java -cp benchmarks/target/benchmarks.jar enrollmentsystem.bench.ApiLoadTest [clients] [seconds] [students]
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.*;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ApiLoadTest {
+    private ApiLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int students = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        Path dir = Files.createTempDirectory("enroll-api");
+        Metrics metrics = new Metrics();
+        EnrollmentRepository repo = new EnrollmentRepository();
+        DataGenerator.populate(repo, students);
+        EnrollmentService service = new EnrollmentService(repo, new EnrollmentEngine(repo, metrics), new DataStore(dir, repo, metrics), metrics);
+        ApiServer server = new ApiServer(service, new InetSocketAddress("localhost", 0));
+        server.start();
+        String base = "http://localhost:" + server.port();
+        int courses = DataGenerator.courseCount(students);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(4))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Histogram latency = new Histogram();
+        Map<Integer, LongAdder> statuses = new ConcurrentSkipListMap<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        System.out.printf("%d clients, %d s, %d students, %d courses, server on %s%n", clients, seconds, students, courses, base);
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            workers.add(pool.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String sid = DataGenerator.studentId(rnd.nextInt(students));
+                    String cid = DataGenerator.courseId(rnd.nextInt(courses));
+                    int op = rnd.nextInt(10);
+                    HttpRequest request;
+                    if (op < 5) {
+                        String body = "{\"student\":\"" + sid + "\",\"course\":\"" + cid + "\",\"waitlist\":" + (op == 0) + "}";
+                        request = HttpRequest.newBuilder(URI.create(base + "/enrollments")).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+                    } else if (op < 8) {
+                        request = HttpRequest.newBuilder(URI.create(base + "/enrollments/" + sid + "/" + cid)).DELETE().build();
+                    } else {
+                        request = HttpRequest.newBuilder(URI.create(base + "/courses/" + cid)).GET().build();
+                    }
+                    long start = System.nanoTime();
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    latency.recordSince(start);
+                    statuses.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> w : workers) w.get();
+        pool.shutdown();
+
+        long requests = latency.count();
+        System.out.printf("requests: %d (%.0f/s)%n", requests, requests / (double) seconds);
+        System.out.printf("latency ms: p50 %.3f  p99 %.3f  p99.9 %.3f  max %.3f%n",
+                latency.percentile(0.50) / 1e6, latency.percentile(0.99) / 1e6, latency.percentile(0.999) / 1e6, latency.max() / 1e6);
+        statuses.forEach((status, n) -> System.out.printf("  HTTP %d: %d%n", status, n.sum()));
+
+        server.stop(1);
+        DataGenerator.deleteRecursively(dir);
+        System.exit(0); // the HttpClient's selector thread is not a daemon
+    }
+}
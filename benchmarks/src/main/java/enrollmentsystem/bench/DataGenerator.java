@@ -0,0 +1,97 @@
+// DataGenerator.java
+// Synthetic data for the benchmarks: N students, one course per 200 students, two enrollments each.
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.Course;
+import enrollmentsystem.Enrollment;
+import enrollmentsystem.EnrollmentRepository;
+import enrollmentsystem.Student;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public final class DataGenerator {
+    public static final int ENROLLMENTS_PER_STUDENT = 2;
+    private static final int STUDENTS_PER_COURSE = 200;
+    private static final int MIN_COURSES = 10;
+
+    private DataGenerator() {
+    }
+
+    public static int courseCount(int students) {
+        return Math.max(MIN_COURSES, students / STUDENTS_PER_COURSE);
+    }
+
+    public static String studentId(int i) {
+        return "S" + i;
+    }
+
+    public static String courseId(int i) {
+        return "C" + i;
+    }
+
+    // Course of a student's k-th enrollment; spreads students evenly over all courses
+    public static int courseOf(int student, int k, int courses) {
+        return (student + k * (courses / ENROLLMENTS_PER_STUDENT + 1)) % courses;
+    }
+
+    // Capacity leaves every course with free seats so enroll benchmarks are not all rejections
+    public static int capacity(int students) {
+        return 2 * ENROLLMENTS_PER_STUDENT * STUDENTS_PER_COURSE + students / courseCount(students) * ENROLLMENTS_PER_STUDENT;
+    }
+
+    public static void populate(EnrollmentRepository repo, int students) {
+        int courses = courseCount(students);
+        int capacity = capacity(students);
+        for (int c = 0; c < courses; c++) repo.addCourse(new Course(courseId(c), "Course " + c, 3, capacity));
+        for (int s = 0; s < students; s++) {
+            repo.addStudent(new Student(studentId(s), "Student " + s));
+            for (int k = 0; k < ENROLLMENTS_PER_STUDENT; k++) {
+                repo.addEnrollment(new Enrollment(studentId(s), courseId(courseOf(s, k, courses))));
+            }
+        }
+    }
+
+    // Writes students.txt, courses.txt and enrollments.txt in the repo's text format
+    public static void writeTextFiles(Path dir, int students) throws IOException {
+        Files.createDirectories(dir);
+        int courses = courseCount(students);
+        int capacity = capacity(students);
+        try (BufferedWriter w = Files.newBufferedWriter(dir.resolve("courses.txt"), StandardCharsets.UTF_8)) {
+            for (int c = 0; c < courses; c++) {
+                w.write(new Course(courseId(c), "Course " + c, 3, capacity).toRecord());
+                w.newLine();
+            }
+        }
+        try (BufferedWriter sw = Files.newBufferedWriter(dir.resolve("students.txt"), StandardCharsets.UTF_8);
+             BufferedWriter ew = Files.newBufferedWriter(dir.resolve("enrollments.txt"), StandardCharsets.UTF_8)) {
+            for (int s = 0; s < students; s++) {
+                Student student = new Student(studentId(s), "Student " + s);
+                List<String> enrolled = new ArrayList<>(ENROLLMENTS_PER_STUDENT);
+                for (int k = 0; k < ENROLLMENTS_PER_STUDENT; k++) {
+                    String cid = courseId(courseOf(s, k, courses));
+                    enrolled.add(cid);
+                    ew.write(new Enrollment(student.getStudentId(), cid).toRecord());
+                    ew.newLine();
+                }
+                sw.write(student.toRecord(enrolled));
+                sw.newLine();
+            }
+        }
+    }
+
+    public static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+// ExportBenchmark.java
+// CSV export of all enrollments: plain, joined, gzipped and one file per course.
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.DataStore;
+import enrollmentsystem.EnrollmentRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ExportBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int records;
+
+    private Path dir;
+    private DataStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("enroll-export");
+        EnrollmentRepository repo = new EnrollmentRepository();
+        DataGenerator.populate(repo, records);
+        store = new DataStore(dir, repo);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DataGenerator.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Path exportEnrollmentsCsv() throws IOException {
+        Path out = dir.resolve("export_enrollments.csv");
+        store.exportEnrollmentsCsv(out);
+        return out;
+    }
+
+    @Benchmark
+    public long exportJoined() throws IOException {
+        return store.exporter().joined(true).export(dir.resolve("export_joined.csv"));
+    }
+
+    @Benchmark
+    public long exportGzip() throws IOException {
+        return store.exporter().gzip(true).export(dir.resolve("export_enrollments.csv.gz"));
+    }
+
+    @Benchmark
+    public long exportPartitioned() throws IOException {
+        return store.exporter().partitioned(true).export(dir.resolve("by_course"));
+    }
+}
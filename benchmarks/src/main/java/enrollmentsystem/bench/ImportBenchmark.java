@@ -0,0 +1,62 @@
+// ImportBenchmark.java
+// Bulk import (what --import does) of generated students, courses and two enrollment requests per
+// student into an empty data directory, including the single save at the end.
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ImportBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int records;
+
+    private Path input;
+    private Path data;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // the generated data files double as import files: same formats
+        input = Files.createTempDirectory("enroll-import");
+        DataGenerator.writeTextFiles(input, records);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyDataDir() throws IOException {
+        if (data != null) DataGenerator.deleteRecursively(data);
+        data = Files.createTempDirectory("enroll-import-data");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DataGenerator.deleteRecursively(input);
+        DataGenerator.deleteRecursively(data);
+    }
+
+    @Benchmark
+    public BatchImport importAll() throws IOException {
+        EnrollmentRepository repo = new EnrollmentRepository();
+        Metrics metrics = new Metrics();
+        DataStore store = new DataStore(data, repo, metrics);
+        store.load();
+        BatchImport batch = new BatchImport(repo, new EnrollmentEngine(repo, metrics), store, metrics)
+                .students(input.resolve("students.txt"))
+                .courses(input.resolve("courses.txt"))
+                .enrollments(input.resolve("enrollments.txt"))
+                .report(data.resolve("rejections.csv"));
+        batch.run();
+        store.close();
+        return batch;
+    }
+}
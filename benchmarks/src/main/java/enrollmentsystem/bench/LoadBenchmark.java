@@ -0,0 +1,67 @@
+// LoadBenchmark.java
+// Cold load of a data directory (what loadAllData does), from the text files or the binary snapshot,
+// or lazily: courses and enrollments only, with students read through the offset index on demand,
+// or from 16 shards loaded in parallel.
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.DataStore;
+import enrollmentsystem.EnrollmentRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class LoadBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int records;
+
+    @Param({"text", "binary", "lazy", "sharded"})
+    public String format;
+
+    private static final int SHARDS = 16;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("enroll-load");
+        DataGenerator.writeTextFiles(dir, records);
+        if (format.equals("lazy")) {
+            // the first lazy load writes the offset index
+            DataStore store = new DataStore(dir, new EnrollmentRepository());
+            store.setLazyStudents(10_000);
+            store.load();
+        } else if (format.equals("binary") || format.equals("sharded")) {
+            // a compaction writes the snapshot next to the text files, or replaces them with shards
+            EnrollmentRepository repo = new EnrollmentRepository();
+            DataStore store = new DataStore(dir, repo);
+            if (format.equals("sharded")) store.setShards(SHARDS);
+            store.load();
+            store.compact();
+            store.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DataGenerator.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public EnrollmentRepository loadAllData() {
+        EnrollmentRepository repo = new EnrollmentRepository();
+        DataStore store = new DataStore(dir, repo);
+        if (format.equals("lazy")) store.setLazyStudents(10_000);
+        store.load();
+        return repo;
+    }
+}
@@ -0,0 +1,45 @@
+// RecordBenchmark.java
+// Per-record cost of the text format helpers.
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.Course;
+import enrollmentsystem.Student;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordBenchmark {
+    private final String studentLine = "202410426,Ralfh Reagan Gaor,ITP_1|GE6|IPT1";
+    private final String courseLine = "ITP_1,Object Oriented Programming,5,40";
+    private final List<String> courses = Arrays.asList("ITP_1", "GE6", "IPT1");
+    private Student student;
+
+    @Setup
+    public void setUp() {
+        student = Student.fromRecord(studentLine);
+    }
+
+    @Benchmark
+    public Student studentFromRecord() {
+        return Student.fromRecord(studentLine);
+    }
+
+    @Benchmark
+    public String studentToRecord() {
+        return student.toRecord(courses);
+    }
+
+    @Benchmark
+    public Course courseFromRecord() {
+        return Course.fromRecord(courseLine);
+    }
+}
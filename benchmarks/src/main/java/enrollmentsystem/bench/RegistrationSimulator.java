@@ -0,0 +1,477 @@
+// RegistrationSimulator.java
+// Replays a registration-day surge against EnrollmentService: synthetic students and courses,
+// course demand skewed by a Zipf distribution (a few hot courses, a long tail), and concurrent
+// clients released together firing an enroll/drop/view mix. Meanwhile a reader takes snapshots
+// back to back, each of which must agree with itself (enrollment rows, seats, course lists and the
+// enrollment count all equal; no course over capacity; no student over the credit limit). Reports
+// throughput, latency percentiles and outcome rates, then checks the final state for consistency
+// (both directions of the enrollment index agree, no course over capacity, waitlists sound, every
+// student within the credit limit with no overlapping courses and a running load that matches a
+// recount), including a reload from the journal. The incrementally kept statistics are compared
+// with a full recount on the live and the reloaded repository. The files are also reloaded lazily
+// (students read on demand through a tiny cache), saved from there and reloaded once more; then
+// split into shards, where a rename must rewrite a single shard file, reloaded in parallel, and
+// merged back into single files.
+// Exits with status 1 if any check fails.
+//
+//   java -cp benchmarks/target/benchmarks.jar enrollmentsystem.bench.RegistrationSimulator \
+//        [clients] [seconds] [students] [courses] [skew]
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+public final class RegistrationSimulator {
+    // Request mix, in percent of all requests
+    private static final int ENROLL_PCT = 55;
+    private static final int WAITLIST_PCT = 10;
+    private static final int DROP_PCT = 15; // the rest are views
+    private static final int MIN_CAPACITY = 20;
+    private static final int MAX_CAPACITY = 60;
+    // Each course meets on one or two days for one or two hours; students may carry this many credits
+    private static final int MAX_CREDITS = 12;
+    // Small enough that the lazy reload keeps evicting and re-reading students
+    private static final int LAZY_CACHE = 64;
+    private static final int SHARDS = 8;
+
+    private enum Kind { ENROLL, WAITLIST, DROP, VIEW }
+
+    private final int clients;
+    private final int seconds;
+    private final int students;
+    private final int courses;
+    private final ZipfSampler demand;
+
+    private final Path dir;
+    private final Metrics metrics = new Metrics();
+    private final EnrollmentRepository repo = new EnrollmentRepository();
+    private final EnrollmentService service;
+
+    private final Histogram[] latency = new Histogram[Kind.values().length];
+    private final LongAdder[][] outcomes = new LongAdder[Kind.values().length][EnrollmentEngine.Result.values().length];
+    private final LongAdder errors = new LongAdder();
+    private final List<String> snapshotProblems = new CopyOnWriteArrayList<>();
+    private int snapshots;
+
+    private RegistrationSimulator(int clients, int seconds, int students, int courses, double skew) throws Exception {
+        this.clients = clients;
+        this.seconds = seconds;
+        this.students = students;
+        this.courses = courses;
+        this.demand = new ZipfSampler(courses, skew);
+        this.dir = Files.createTempDirectory("enroll-sim");
+        DataStore store = new DataStore(dir, repo, metrics);
+        this.service = new EnrollmentService(repo, new EnrollmentEngine(repo, metrics), store, metrics);
+        for (int k = 0; k < latency.length; k++) {
+            latency[k] = new Histogram();
+            for (int r = 0; r < outcomes[k].length; r++) outcomes[k][r] = new LongAdder();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int students = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        int courses = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        double skew = args.length > 4 ? Double.parseDouble(args[4]) : 1.1;
+
+        RegistrationSimulator sim = new RegistrationSimulator(clients, seconds, students, courses, skew);
+        boolean consistent;
+        try {
+            sim.setUp(new Random(42));
+            System.out.printf("%d clients, %d s, %d students, %d courses, Zipf skew %.2f (top course %.1f%% of demand)%n",
+                    clients, seconds, students, courses, skew, 100 * sim.demand.probability(0));
+            sim.run();
+            sim.report();
+            consistent = sim.check();
+        } finally {
+            DataGenerator.deleteRecursively(sim.dir);
+        }
+        System.exit(consistent ? 0 : 1);
+    }
+
+    // Courses with capacities of MIN..MAX_CAPACITY seats and no enrollments yet, saved as the base files
+    private void setUp(Random rnd) throws Exception {
+        for (int c = 0; c < courses; c++) {
+            int capacity = MIN_CAPACITY + rnd.nextInt(MAX_CAPACITY - MIN_CAPACITY + 1);
+            repo.addCourse(new Course(DataGenerator.courseId(c), "Course " + c, 1 + rnd.nextInt(4), capacity, meetingTimes(rnd)));
+        }
+        repo.setRules(new EnrollmentRules(MAX_CREDITS, true));
+        for (int s = 0; s < students; s++) repo.addStudent(new Student(DataGenerator.studentId(s), "Student " + s));
+        service.save();
+    }
+
+    private void run() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch open = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            workers.add(pool.submit(() -> {
+                open.await();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) request(rnd);
+                return null;
+            }));
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            while (done.getCount() > 0) readSnapshot();
+        });
+        long start = System.nanoTime();
+        open.countDown(); // registration opens: every client starts at once
+        reader.start();
+        for (Future<?> w : workers) w.get();
+        done.countDown();
+        reader.join();
+        pool.shutdown();
+        System.out.printf("ran %.1f s, %d snapshots read meanwhile%n", (System.nanoTime() - start) / 1e9, snapshots);
+    }
+
+    // Every total in one snapshot must agree, however the surge interleaves with the reads
+    private void readSnapshot() {
+        try (EnrollmentSnapshot snap = repo.snapshot()) {
+            int count = snap.enrollmentCount();
+            long rows = 0;
+            for (Enrollment e : snap.getEnrollments()) rows++;
+            long seats = 0;
+            for (Course c : snap.getCourses()) {
+                int taken = snap.enrolledCount(c.getCourseId());
+                seats += taken;
+                if (taken > c.getCapacity()) snapshotProblems.add("snapshot has " + c.getCourseId() + " over capacity: " + taken + " of " + c.getCapacity());
+            }
+            long held = 0;
+            for (Student s : snap.getStudents()) {
+                held += snap.studentCourseCount(s.getStudentId());
+                int credits = snap.studentCredits(s.getStudentId());
+                if (credits > MAX_CREDITS) snapshotProblems.add("snapshot has " + s.getStudentId() + " at " + credits + " credits");
+            }
+            if (rows != count || seats != count || held != count) {
+                snapshotProblems.add("snapshot enrollment count " + count + ", rows " + rows + ", courses hold " + seats + ", students hold " + held);
+            }
+        }
+        snapshots++;
+    }
+
+    private void request(ThreadLocalRandom rnd) {
+        String sid = DataGenerator.studentId(rnd.nextInt(students));
+        int roll = rnd.nextInt(100);
+        Kind kind = roll < ENROLL_PCT ? Kind.ENROLL
+                : roll < ENROLL_PCT + WAITLIST_PCT ? Kind.WAITLIST
+                : roll < ENROLL_PCT + WAITLIST_PCT + DROP_PCT ? Kind.DROP
+                : Kind.VIEW;
+        long start = System.nanoTime();
+        try {
+            EnrollmentEngine.Result result = null;
+            switch (kind) {
+                case ENROLL:
+                    result = service.enroll(sid, DataGenerator.courseId(demand.next(rnd)));
+                    break;
+                case WAITLIST:
+                    result = service.joinWaitlist(sid, DataGenerator.courseId(demand.next(rnd)), rnd.nextInt(3));
+                    break;
+                case DROP:
+                    // mostly a course the student holds; otherwise one they may only be waiting for
+                    List<String> held = repo.studentCourses(sid);
+                    String cid = held.isEmpty() ? DataGenerator.courseId(demand.next(rnd)) : held.get(rnd.nextInt(held.size()));
+                    result = service.drop(sid, cid);
+                    break;
+                default:
+                    if (rnd.nextBoolean()) {
+                        repo.studentCourses(sid);
+                    } else {
+                        String viewed = DataGenerator.courseId(demand.next(rnd));
+                        repo.enrolledCount(viewed);
+                        repo.waitlistSize(viewed);
+                    }
+            }
+            latency[kind.ordinal()].recordSince(start);
+            if (result != null) outcomes[kind.ordinal()][result.ordinal()].increment();
+        } catch (Exception e) {
+            errors.increment();
+        }
+    }
+
+    private void report() {
+        long total = 0;
+        for (Histogram h : latency) total += h.count();
+        System.out.printf("requests: %d (%.0f/s), errors: %d%n", total, total / (double) seconds, errors.sum());
+        System.out.printf("%-9s %10s %10s %10s %10s %10s%n", "op", "count", "p50 us", "p99 us", "p99.9 us", "max us");
+        for (Kind kind : Kind.values()) {
+            Histogram h = latency[kind.ordinal()];
+            System.out.printf("%-9s %10d %10.1f %10.1f %10.1f %10.1f%n", kind, h.count(),
+                    h.percentile(0.50) / 1e3, h.percentile(0.99) / 1e3, h.percentile(0.999) / 1e3, h.max() / 1e3);
+        }
+        for (Kind kind : EnumSet.of(Kind.ENROLL, Kind.WAITLIST, Kind.DROP)) {
+            long attempts = latency[kind.ordinal()].count();
+            StringBuilder sb = new StringBuilder();
+            for (EnrollmentEngine.Result r : EnrollmentEngine.Result.values()) {
+                long n = outcomes[kind.ordinal()][r.ordinal()].sum();
+                if (n > 0) sb.append(String.format("  %s %.1f%%", r, 100.0 * n / attempts));
+            }
+            System.out.println(kind + ":" + sb);
+        }
+        System.out.printf("promotions: %d, enrollments: %d, waiting: %d%n",
+                metrics.latency(Metrics.Op.PROMOTE).count(), repo.enrollmentCount(), repo.totals().getWaiting());
+        int full = 0;
+        for (Course c : repo.getCourses()) if (repo.isFull(c)) full++;
+        System.out.printf("full courses: %d of %d%n", full, courses);
+    }
+
+    // Run once all clients have stopped
+    private boolean check() {
+        List<String> problems = new ArrayList<>(snapshotProblems);
+        long seats = 0;
+        for (Course c : repo.getCourses()) {
+            String cid = c.getCourseId();
+            int taken = repo.enrolledCount(cid);
+            int members = repo.courseMembers(cid).size();
+            seats += members;
+            if (taken > c.getCapacity()) problems.add(cid + " is over capacity: " + taken + " of " + c.getCapacity());
+            if (taken != members) problems.add(cid + " seat count " + taken + " but " + members + " members");
+            int waiting = repo.waitlistSize(cid);
+            if (waiting > 0 && taken < c.getCapacity()) problems.add(cid + " has free seats and " + waiting + " waiting");
+        }
+        Map<String, Set<String>> listed = new HashMap<>();
+        for (Enrollment e : repo.getEnrollments()) listed.computeIfAbsent(e.getStudentId(), k -> new HashSet<>()).add(e.getCourseId());
+        long held = 0;
+        for (Student s : repo.getStudents()) {
+            String sid = s.getStudentId();
+            Set<String> own = new HashSet<>(repo.studentCourses(sid));
+            held += own.size();
+            if (!own.equals(listed.getOrDefault(sid, Collections.emptySet()))) {
+                problems.add(sid + " lists " + own + " but enrollments have " + listed.get(sid));
+            }
+            for (String cid : own) {
+                Waitlist w = repo.findWaitlist(cid);
+                if (w != null && w.contains(sid)) problems.add(sid + " is both enrolled in and waiting for " + cid);
+            }
+        }
+        for (Student s : repo.getStudents()) problems.addAll(checkLoad(s.getStudentId()));
+        if (held != repo.enrollmentCount() || seats != repo.enrollmentCount()) {
+            problems.add("enrollment count " + repo.enrollmentCount() + ", students hold " + held + ", courses hold " + seats);
+        }
+        problems.addAll(EnrollmentStats.verify(repo));
+        problems.addAll(checkReload());
+
+        if (problems.isEmpty()) {
+            System.out.println("consistency: OK (snapshots during the surge, capacity, seat counts, enrollment index, waitlists, credit and schedule loads, statistics, journal reload, lazy reload and save, sharded save and reload)");
+            return true;
+        }
+        System.out.println("consistency: " + problems.size() + " problem(s)");
+        for (String p : problems.subList(0, Math.min(20, problems.size()))) System.out.println("  " + p);
+        return false;
+    }
+
+    // Shuts the store down (final group commit), loads the saved files plus journal into a fresh
+    // repository and compares it with the live one
+    private List<String> checkReload() {
+        List<String> problems = new ArrayList<>();
+        try {
+            service.close();
+        } catch (IOException e) {
+            problems.add("final flush failed: " + e.getMessage());
+        }
+        EnrollmentRepository reloaded = new EnrollmentRepository();
+        new DataStore(dir, reloaded).load();
+        for (Course c : repo.getCourses()) {
+            String cid = c.getCourseId();
+            Set<String> live = new HashSet<>(repo.courseMembers(cid));
+            Set<String> loaded = new HashSet<>(reloaded.courseMembers(cid));
+            if (!live.equals(loaded)) problems.add("reloaded " + cid + " has " + loaded.size() + " members, live " + live.size());
+            if (reloaded.waitlistSize(cid) != repo.waitlistSize(cid)) {
+                problems.add("reloaded " + cid + " has " + reloaded.waitlistSize(cid) + " waiting, live " + repo.waitlistSize(cid));
+            }
+        }
+        for (String p : EnrollmentStats.verify(reloaded)) problems.add("reloaded statistics: " + p);
+        EnrollmentStats.Totals live = repo.totals(), loaded = reloaded.totals();
+        if (live.getSeats() != loaded.getSeats() || live.getCredits() != loaded.getCredits() || live.getWaiting() != loaded.getWaiting()) {
+            problems.add("reloaded totals: " + loaded.getSeats() + " seats, " + loaded.getCredits() + " credits, " + loaded.getWaiting()
+                    + " waiting; live " + live.getSeats() + ", " + live.getCredits() + ", " + live.getWaiting());
+        }
+        problems.addAll(checkLazyReload());
+        problems.addAll(checkShardedReload());
+        if (reloaded.getRules().getMaxCredits() != MAX_CREDITS) problems.add("reloaded rules: " + reloaded.getRules());
+        for (Student s : repo.getStudents()) {
+            String sid = s.getStudentId();
+            if (reloaded.studentCredits(sid) != repo.studentCredits(sid) || reloaded.studentSlots(sid) != repo.studentSlots(sid)) {
+                problems.add("reloaded " + sid + " carries " + reloaded.studentCredits(sid) + " credits, live " + repo.studentCredits(sid));
+            }
+        }
+        return problems;
+    }
+
+    // Loads the same files with students read on demand and compares every student with the live
+    // repository; then saves from the lazy repository (merging into students.txt) and compares a
+    // full reload of the result
+    private List<String> checkLazyReload() {
+        List<String> problems = new ArrayList<>();
+        EnrollmentRepository lazy = new EnrollmentRepository();
+        DataStore store = new DataStore(dir, lazy);
+        store.setLazyStudents(LAZY_CACHE);
+        store.load();
+        problems.addAll(compareStudents("lazily loaded", lazy));
+        try {
+            lazy.renameStudent(DataGenerator.studentId(0), "Renamed while lazy");
+            repo.renameStudent(DataGenerator.studentId(0), "Renamed while lazy");
+            store.logMutation(Journal.RENAME_STUDENT, DataGenerator.studentId(0), "Renamed while lazy");
+            store.compact();
+            store.close();
+        } catch (IOException e) {
+            problems.add("lazy save failed: " + e.getMessage());
+        }
+        EnrollmentRepository saved = new EnrollmentRepository();
+        new DataStore(dir, saved).load();
+        problems.addAll(compareStudents("saved lazily and reloaded", saved));
+        if (saved.enrollmentCount() != repo.enrollmentCount()) {
+            problems.add("saved lazily and reloaded: " + saved.enrollmentCount() + " enrollments, live " + repo.enrollmentCount());
+        }
+        return problems;
+    }
+
+    // Saves the files as shards, renames one student (which must replace exactly one shard file),
+    // reloads the shards in parallel and compares; then goes back to single files and compares again
+    private List<String> checkShardedReload() {
+        List<String> problems = new ArrayList<>();
+        String sid = DataGenerator.studentId(1);
+        try {
+            EnrollmentRepository sharded = new EnrollmentRepository();
+            DataStore store = new DataStore(dir, sharded);
+            store.setShards(SHARDS);
+            store.load();
+            store.compact();
+            if (Files.exists(dir.resolve("students.txt"))) problems.add("students.txt is still there after sharding");
+            Map<Path, Object> before = shardFiles();
+            sharded.renameStudent(sid, "Renamed in a shard");
+            repo.renameStudent(sid, "Renamed in a shard");
+            store.logMutation(Journal.RENAME_STUDENT, sid, "Renamed in a shard");
+            store.compact();
+            store.close();
+            Map<Path, Object> after = shardFiles();
+            int rewritten = 0;
+            for (Map.Entry<Path, Object> f : after.entrySet()) {
+                if (f.getValue() != null && !f.getValue().equals(before.get(f.getKey()))) rewritten++;
+            }
+            if (after.size() != 2 * SHARDS) problems.add(after.size() + " shard files, expected " + 2 * SHARDS);
+            if (after.values().iterator().next() != null && rewritten != 1) problems.add("a rename rewrote " + rewritten + " shard files");
+
+            EnrollmentRepository reloaded = new EnrollmentRepository();
+            new DataStore(dir, reloaded).load();
+            problems.addAll(compareStudents("reloaded from shards", reloaded));
+            for (String p : EnrollmentStats.verify(reloaded)) problems.add("reloaded from shards, statistics: " + p);
+
+            // a store without shards writes single files again and removes the shards
+            EnrollmentRepository merged = new EnrollmentRepository();
+            DataStore single = new DataStore(dir, merged);
+            single.load();
+            single.compact();
+            single.close();
+            if (Files.exists(dir.resolve("shards"))) problems.add("shards are still there after merging");
+            EnrollmentRepository unsharded = new EnrollmentRepository();
+            new DataStore(dir, unsharded).load();
+            problems.addAll(compareStudents("merged from shards", unsharded));
+        } catch (IOException e) {
+            problems.add("sharded save failed: " + e.getMessage());
+        }
+        return problems;
+    }
+
+    // Shard file -> file key (inode), which a rewrite (new file renamed over the old) changes;
+    // null keys where the file system has none
+    private Map<Path, Object> shardFiles() throws IOException {
+        Map<Path, Object> keys = new HashMap<>();
+        try (Stream<Path> files = Files.list(dir.resolve("shards"))) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                if (p.getFileName().toString().matches("(students|enrollments)-\\d+-\\d+\\.txt")) {
+                    keys.put(p, Files.readAttributes(p, BasicFileAttributes.class).fileKey());
+                }
+            }
+        }
+        return keys;
+    }
+
+    private List<String> compareStudents(String how, EnrollmentRepository other) {
+        List<String> problems = new ArrayList<>();
+        if (other.studentCount() != repo.studentCount()) problems.add(how + ": " + other.studentCount() + " students, live " + repo.studentCount());
+        int listed = 0;
+        for (Student s : other.getStudents()) {
+            listed++;
+            if (repo.findStudent(s.getStudentId()) == null) problems.add(how + " lists deleted student " + s.getStudentId());
+        }
+        if (listed != repo.studentCount()) problems.add(how + " lists " + listed + " students, live " + repo.studentCount());
+        for (Student s : repo.getStudents()) {
+            String sid = s.getStudentId();
+            Student o = other.findStudent(sid);
+            if (o == null || !o.getName().equals(s.getName())) {
+                problems.add(how + " " + sid + " is " + (o == null ? "missing" : "named " + o.getName()) + ", live " + s.getName());
+            } else if (!new HashSet<>(other.studentCourses(sid)).equals(new HashSet<>(repo.studentCourses(sid)))) {
+                problems.add(how + " " + sid + " holds " + other.studentCourses(sid) + ", live " + repo.studentCourses(sid));
+            }
+        }
+        return problems;
+    }
+
+    // The running credit total and slot mask must equal a recount, and satisfy the rules
+    private List<String> checkLoad(String sid) {
+        List<String> problems = new ArrayList<>();
+        int credits = 0;
+        long slots = 0;
+        for (String cid : repo.studentCourses(sid)) {
+            Course c = repo.findCourse(cid);
+            if ((slots & c.getSlots()) != 0) problems.add(sid + " holds overlapping courses, including " + cid);
+            credits += c.getCredits();
+            slots |= c.getSlots();
+        }
+        if (credits > MAX_CREDITS) problems.add(sid + " carries " + credits + " credits");
+        if (credits != repo.studentCredits(sid) || slots != repo.studentSlots(sid)) {
+            problems.add(sid + " load is " + repo.studentCredits(sid) + " credits, recount gives " + credits);
+        }
+        return problems;
+    }
+
+    private static long meetingTimes(Random rnd) {
+        String days = "MoTuWeThFrSa";
+        StringBuilder sb = new StringBuilder();
+        int first = rnd.nextInt(6);
+        sb.append(days, 2 * first, 2 * first + 2);
+        if (rnd.nextBoolean()) {
+            int second = (first + 1 + rnd.nextInt(5)) % 6;
+            sb.append(days, 2 * second, 2 * second + 2);
+        }
+        int start = Schedule.FIRST_HOUR + rnd.nextInt(Schedule.HOURS_PER_DAY - 1);
+        return Schedule.parse(sb.append(start).append('-').append(start + 1 + rnd.nextInt(2)).toString());
+    }
+
+    // Course index with P(k) proportional to 1 / (k + 1)^skew; index 0 is the hottest course
+    private static final class ZipfSampler {
+        private final double[] cdf;
+
+        ZipfSampler(int n, double skew) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, skew);
+                cdf[k] = sum;
+            }
+            for (int k = 0; k < n; k++) cdf[k] /= sum;
+        }
+
+        int next(Random rnd) {
+            int i = Arrays.binarySearch(cdf, rnd.nextDouble());
+            return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+        }
+
+        double probability(int k) {
+            return k == 0 ? cdf[0] : cdf[k] - cdf[k - 1];
+        }
+    }
+}
@@ -0,0 +1,60 @@
+// ReportBenchmark.java
+// Listing reports rendered to a discarding stream: full listings, a sorted first page and a per-course filter.
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.EnrollmentRepository;
+import enrollmentsystem.ReportQuery;
+import enrollmentsystem.ReportRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ReportBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int records;
+
+    private ReportRenderer report;
+    private String course;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EnrollmentRepository repo = new EnrollmentRepository();
+        DataGenerator.populate(repo, records);
+        report = new ReportRenderer(repo, OutputStream.nullOutputStream());
+        course = DataGenerator.courseId(0);
+    }
+
+    @Benchmark
+    public int allStudents() throws IOException {
+        return report.students(ReportQuery.all());
+    }
+
+    @Benchmark
+    public int allEnrollments() throws IOException {
+        return report.enrollments(ReportQuery.all());
+    }
+
+    @Benchmark
+    public int coursesByFillRate() throws IOException {
+        return report.courses(ReportQuery.all().sort("fill"));
+    }
+
+    @Benchmark
+    public int studentsByNameFirstPage() throws IOException {
+        return report.students(ReportQuery.all().sort("name").page(1, 50));
+    }
+
+    @Benchmark
+    public int enrollmentsOfOneCourse() throws IOException {
+        return report.enrollments(ReportQuery.all().course(course));
+    }
+}
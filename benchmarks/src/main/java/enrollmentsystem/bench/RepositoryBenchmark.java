@@ -0,0 +1,97 @@
+// RepositoryBenchmark.java
+// Hot-path operations against a populated repository. Cost per operation should stay flat as records grow.
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class RepositoryBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int records;
+
+    private EnrollmentRepository repo;
+    private EnrollmentEngine engine;
+    private String[] studentIds;
+    private String fullCourse;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repo = new EnrollmentRepository();
+        engine = new EnrollmentEngine(repo);
+        DataGenerator.populate(repo, records);
+        studentIds = new String[Math.min(records, 1 << 16)];
+        for (int i = 0; i < studentIds.length; i++) studentIds[i] = DataGenerator.studentId((int) ((long) i * records / studentIds.length));
+        // a zero-capacity course: every enroll runs the lookups and capacity check, then is rejected
+        fullCourse = "FULL";
+        repo.addCourse(new Course(fullCourse, "Full course", 3, 0));
+    }
+
+    private String nextStudent() {
+        next = (next + 1) & (studentIds.length - 1);
+        return studentIds[next];
+    }
+
+    @Benchmark
+    public Student findStudentById() {
+        return repo.findStudent(nextStudent());
+    }
+
+    @Benchmark
+    public EnrollmentEngine.Result enrollCapacityCheck() {
+        return engine.enroll(nextStudent(), fullCourse);
+    }
+
+    @Benchmark
+    public boolean duplicateCheck() {
+        return repo.isEnrolled(nextStudent(), DataGenerator.courseId(0));
+    }
+
+    // Cascade delete of one student and their enrollments, then restore so the dataset stays the same size
+    @Benchmark
+    public Student deleteStudentCascade() {
+        String sid = nextStudent();
+        List<String> enrolled = repo.studentCourses(sid);
+        Student s = repo.removeStudent(sid);
+        Student restored = new Student(sid, s.getName());
+        repo.addStudent(restored);
+        for (String cid : enrolled) repo.addEnrollment(new Enrollment(sid, cid));
+        return restored;
+    }
+
+    // Cascade delete of one course (about 400 enrollments), then restore
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Course deleteCourseCascade() {
+        String cid = DataGenerator.courseId(next++ % DataGenerator.courseCount(records));
+        List<String> enrolled = studentsIn(cid);
+        Course c = repo.removeCourse(cid);
+        repo.addCourse(c);
+        for (String sid : enrolled) repo.addEnrollment(new Enrollment(sid, cid));
+        return c;
+    }
+
+    private List<String> studentsIn(String cid) {
+        int courses = DataGenerator.courseCount(records);
+        int ci = Integer.parseInt(cid.substring(1));
+        List<String> out = new ArrayList<>();
+        for (int k = 0; k < DataGenerator.ENROLLMENTS_PER_STUDENT; k++) {
+            // inverse of DataGenerator.courseOf: students s with (s + k * step) % courses == ci
+            int step = courses / DataGenerator.ENROLLMENTS_PER_STUDENT + 1;
+            int first = Math.floorMod(ci - k * step, courses);
+            for (int s = first; s < records; s += courses) out.add(DataGenerator.studentId(s));
+        }
+        return out;
+    }
+}
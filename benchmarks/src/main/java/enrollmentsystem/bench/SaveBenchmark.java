@@ -0,0 +1,75 @@
+// SaveBenchmark.java
+// Compaction after a few renamed students or after a change to every student, with the data in
+// single files or in 64 shards (where only the shards holding changed students are rewritten).
+
+package enrollmentsystem.bench;
+
+import enrollmentsystem.DataStore;
+import enrollmentsystem.EnrollmentRepository;
+import enrollmentsystem.Journal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class SaveBenchmark {
+    @Param({"100000", "1000000"})
+    public int records;
+
+    @Param({"0", "64"})
+    public int shards;
+
+    // renamed students, or "all"
+    @Param({"10", "all"})
+    public String changes;
+
+    private Path dir;
+    private EnrollmentRepository repo;
+    private DataStore store;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("enroll-save");
+        DataGenerator.writeTextFiles(dir, records);
+        repo = new EnrollmentRepository();
+        store = new DataStore(dir, repo);
+        store.setShards(shards);
+        store.load();
+        store.compact(); // into the layout under test
+    }
+
+    @Setup(Level.Invocation)
+    public void change() throws IOException {
+        if (changes.equals("all")) {
+            store.markAllChanged();
+            return;
+        }
+        round++;
+        int n = Integer.parseInt(changes);
+        for (int i = 0; i < n; i++) {
+            String sid = DataGenerator.studentId((int) ((long) i * records / n));
+            repo.renameStudent(sid, "Renamed " + round);
+            store.logMutation(Journal.RENAME_STUDENT, sid, "Renamed " + round);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        DataGenerator.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public void compact() throws IOException {
+        store.compact();
+    }
+}
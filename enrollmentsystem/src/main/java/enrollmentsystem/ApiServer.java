@@ -0,0 +1,463 @@
+// ApiServer.java
+// Local HTTP/JSON API over EnrollmentService, on the JDK's built-in HTTP server.
+// Each request runs on its own virtual thread when the JVM has them (Java 21+), otherwise on a
+// cached thread pool. Responses carry a Content-Length (or are chunked) and request bodies are
+// always drained, so clients can keep connections alive.
+//
+//   GET    /students                  ?course= &student= &name= &sort=id|name|courses &size= &page=
+//   POST   /students                  {"id": "...", "name": "..."}
+//   GET    /students/{id}
+//   PUT    /students/{id}             {"name": "..."}
+//   DELETE /students/{id}
+//   GET    /courses                   ?course= &student= &name= &credits=2..4 &seats=1.. &sort=id|name|credits|enrolled|fill &size= &page=
+//   POST   /courses                   {"id": "...", "name": "...", "credits": 3, "capacity": 40, "schedule": "MoWe9-11"}
+//   GET    /courses/{id}
+//   PUT    /courses/{id}              {"name": "..."}
+//   DELETE /courses/{id}
+//   PUT    /courses/{id}/capacity     {"capacity": 50}
+//   PUT    /courses/{id}/schedule     {"schedule": "MoWe9-11 Fr14-16"}   ("" for none)
+//   GET    /courses/{id}/waitlist
+//   GET    /enrollments               ?course= &student= &sort=student|course &size= &page=
+//   POST   /enrollments               {"student": "...", "course": "...", "waitlist": true, "priority": 0}
+//   DELETE /enrollments/{student}/{course}
+//   GET    /rules
+//   PUT    /rules                     {"maxCredits": 18, "rejectConflicts": true}   (0 = no credit limit)
+//   GET    /stats                     ?top=10   (totals and the courses most in demand)
+//   GET    /stats/verify              (recounts everything and lists mismatches)
+//   GET    /export                    ?course= &student= &joined &gzip   (streams CSV)
+//   GET    /metrics                   (Prometheus text)
+
+package enrollmentsystem;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ApiServer {
+    private static final String JSON = "application/json; charset=utf-8";
+
+    // Thrown by handlers to answer with an HTTP error status and {"error": message}
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final EnrollmentService service;
+    private final EnrollmentRepository repo;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ApiServer(EnrollmentService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        this.repo = service.repository();
+        // headers and body go out as separate writes; without TCP_NODELAY every keep-alive
+        // response waits ~40ms for the client's delayed ACK. Read once, when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.server = HttpServer.create(address, 1024);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    // One virtual thread per request when available; reflection keeps this compiling on Java 17
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "api-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Waits up to delaySeconds for in-flight requests
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    // -------------------- Routing --------------------
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            String body = readBody(ex);
+            String[] path = segments(ex.getRequestURI().getRawPath());
+            String method = ex.getRequestMethod();
+            if (path.length == 0) throw new ApiException(404, "no such resource");
+            switch (path[0]) {
+                case "students": students(ex, method, path, body); break;
+                case "courses": courses(ex, method, path, body); break;
+                case "enrollments": enrollments(ex, method, path, body); break;
+                case "rules": rules(ex, method, path, body); break;
+                case "stats": stats(ex, method, path); break;
+                case "export": only(method, "GET", path.length == 1); export(ex); break;
+                case "metrics":
+                    only(method, "GET", path.length == 1);
+                    send(ex, 200, "text/plain; version=0.0.4; charset=utf-8", service.metrics().exposition(repo));
+                    break;
+                default: throw new ApiException(404, "no such resource");
+            }
+        } catch (ApiException e) {
+            sendError(ex, e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(ex, 400, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            sendError(ex, 500, String.valueOf(e.getMessage()));
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void students(HttpExchange ex, String method, String[] path, String body) throws IOException {
+        if (path.length == 1) {
+            if (method.equals("GET")) {
+                ReportQuery q = ReportQuery.fromOptions(query(ex), "id", "name", "courses");
+                report(ex).students(q);
+                return;
+            }
+            only(method, "POST", true);
+            Map<String, Object> json = Json.parseObject(body);
+            String sid = text(json, "id");
+            if (!service.addStudent(sid, text(json, "name"))) throw new ApiException(409, "student ID already exists");
+            sendJson(ex, 201, studentJson(repo.findStudent(sid)));
+            return;
+        }
+        if (path.length != 2) throw new ApiException(404, "no such resource");
+        String sid = path[1];
+        if (method.equals("DELETE")) {
+            if (!service.deleteStudent(sid)) throw new ApiException(404, "student not found");
+            sendJson(ex, 200, "{\"deleted\":" + Json.quote(sid) + "}");
+            return;
+        }
+        if (method.equals("PUT")) {
+            if (!service.renameStudent(sid, text(Json.parseObject(body), "name"))) throw new ApiException(404, "student not found");
+            sendJson(ex, 200, studentJson(repo.findStudent(sid)));
+            return;
+        }
+        only(method, "GET", true);
+        Student s = repo.findStudent(sid);
+        if (s == null) throw new ApiException(404, "student not found");
+        sendJson(ex, 200, studentJson(s));
+    }
+
+    private void courses(HttpExchange ex, String method, String[] path, String body) throws IOException {
+        if (path.length == 1) {
+            if (method.equals("GET")) {
+                ReportQuery q = ReportQuery.fromOptions(query(ex), "id", "name", "credits", "enrolled", "fill");
+                report(ex).courses(q);
+                return;
+            }
+            only(method, "POST", true);
+            Map<String, Object> json = Json.parseObject(body);
+            String cid = text(json, "id");
+            long slots = json.containsKey("schedule") ? Schedule.parse(string(json, "schedule")) : 0;
+            if (!service.addCourse(cid, text(json, "name"), number(json, "credits"), number(json, "capacity"), slots)) {
+                throw new ApiException(409, "course ID already exists");
+            }
+            sendJson(ex, 201, courseJson(repo.findCourse(cid)));
+            return;
+        }
+        String cid = path[1];
+        if (path.length == 3 && path[2].equals("capacity")) {
+            only(method, "PUT", true);
+            if (!service.updateCapacity(cid, number(Json.parseObject(body), "capacity"))) throw new ApiException(404, "course not found");
+            sendJson(ex, 200, courseJson(repo.findCourse(cid)));
+            return;
+        }
+        if (path.length == 3 && path[2].equals("schedule")) {
+            only(method, "PUT", true);
+            long slots = Schedule.parse(string(Json.parseObject(body), "schedule"));
+            if (!service.updateSchedule(cid, slots)) throw new ApiException(404, "course not found");
+            sendJson(ex, 200, courseJson(repo.findCourse(cid)));
+            return;
+        }
+        if (path.length == 3 && path[2].equals("waitlist")) {
+            only(method, "GET", true);
+            if (repo.findCourse(cid) == null) throw new ApiException(404, "course not found");
+            sendJson(ex, 200, waitlistJson(repo.findWaitlist(cid)));
+            return;
+        }
+        if (path.length != 2) throw new ApiException(404, "no such resource");
+        if (method.equals("DELETE")) {
+            if (!service.deleteCourse(cid)) throw new ApiException(404, "course not found");
+            sendJson(ex, 200, "{\"deleted\":" + Json.quote(cid) + "}");
+            return;
+        }
+        if (method.equals("PUT")) {
+            if (!service.renameCourse(cid, text(Json.parseObject(body), "name"))) throw new ApiException(404, "course not found");
+            sendJson(ex, 200, courseJson(repo.findCourse(cid)));
+            return;
+        }
+        only(method, "GET", true);
+        Course c = repo.findCourse(cid);
+        if (c == null) throw new ApiException(404, "course not found");
+        sendJson(ex, 200, courseJson(c));
+    }
+
+    private void enrollments(HttpExchange ex, String method, String[] path, String body) throws IOException {
+        if (path.length == 3) {
+            only(method, "DELETE", true);
+            EnrollmentEngine.Result result = service.drop(path[1], path[2]);
+            sendResult(ex, result, result == EnrollmentEngine.Result.DROPPED ? 200 : statusOf(result));
+            return;
+        }
+        if (path.length != 1) throw new ApiException(404, "no such resource");
+        if (method.equals("GET")) {
+            ReportQuery q = ReportQuery.fromOptions(query(ex), "student", "course");
+            report(ex).enrollments(q);
+            return;
+        }
+        only(method, "POST", true);
+        Map<String, Object> json = Json.parseObject(body);
+        String sid = text(json, "student");
+        String cid = text(json, "course");
+        EnrollmentEngine.Result result = service.enroll(sid, cid);
+        // a full course queues the student when asked to
+        if (result == EnrollmentEngine.Result.COURSE_FULL && Boolean.TRUE.equals(json.get("waitlist"))) {
+            int priority = json.containsKey("priority") ? number(json, "priority") : 0;
+            result = service.joinWaitlist(sid, cid, priority);
+        }
+        switch (result) {
+            case ENROLLED: sendResult(ex, result, 201); break;
+            case WAITLISTED: sendResult(ex, result, 202); break;
+            default: sendResult(ex, result, statusOf(result)); break;
+        }
+    }
+
+    private void rules(HttpExchange ex, String method, String[] path, String body) throws IOException {
+        if (path.length != 1) throw new ApiException(404, "no such resource");
+        if (method.equals("PUT")) {
+            Map<String, Object> json = Json.parseObject(body);
+            EnrollmentRules current = repo.getRules();
+            int maxCredits = json.containsKey("maxCredits") ? number(json, "maxCredits") : current.getMaxCredits();
+            if (maxCredits < 0) throw new ApiException(400, "\"maxCredits\" must not be negative");
+            boolean reject = current.rejectsConflicts();
+            if (json.containsKey("rejectConflicts")) {
+                if (!(json.get("rejectConflicts") instanceof Boolean)) throw new ApiException(400, "\"rejectConflicts\" must be true or false");
+                reject = (Boolean) json.get("rejectConflicts");
+            }
+            service.setRules(new EnrollmentRules(maxCredits, reject));
+        } else {
+            only(method, "GET", true);
+        }
+        EnrollmentRules rules = repo.getRules();
+        sendJson(ex, 200, "{\"maxCredits\":" + rules.getMaxCredits() + ",\"rejectConflicts\":" + rules.rejectsConflicts() + "}");
+    }
+
+    private void stats(HttpExchange ex, String method, String[] path) throws IOException {
+        if (path.length == 2 && path[1].equals("verify")) {
+            only(method, "GET", true);
+            List<String> problems = EnrollmentStats.verify(repo);
+            StringBuilder sb = new StringBuilder("{\"consistent\":").append(problems.isEmpty()).append(",\"mismatches\":[");
+            for (int i = 0; i < problems.size(); i++) {
+                if (i > 0) sb.append(',');
+                Json.appendQuoted(sb, problems.get(i));
+            }
+            sendJson(ex, 200, sb.append("]}").toString());
+            return;
+        }
+        only(method, "GET", path.length == 1);
+        String top = query(ex).getOrDefault("top", "10");
+        int n;
+        try {
+            n = Integer.parseInt(top);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "top must be an integer");
+        }
+        if (n < 0 || n > 1000) throw new ApiException(400, "top must be between 0 and 1000");
+        EnrollmentStats.Totals t = repo.totals();
+        StringBuilder sb = new StringBuilder("{\"students\":").append(t.getStudents())
+                .append(",\"courses\":").append(t.getCourses())
+                .append(",\"enrollments\":").append(t.getEnrollments())
+                .append(",\"seats\":").append(t.getSeats())
+                .append(",\"fullCourses\":").append(t.getFullCourses())
+                .append(",\"waiting\":").append(t.getWaiting())
+                .append(",\"credits\":").append(t.getCredits())
+                .append(",\"busiest\":[");
+        boolean first = true;
+        for (String cid : repo.busiestCourses(n)) {
+            Course c = repo.findCourse(cid);
+            if (c == null) continue;
+            if (!first) sb.append(',');
+            first = false;
+            sb.append(courseJson(c));
+        }
+        sendJson(ex, 200, sb.append("]}").toString());
+    }
+
+    private static int statusOf(EnrollmentEngine.Result result) {
+        switch (result) {
+            case STUDENT_NOT_FOUND: case COURSE_NOT_FOUND: case NOT_ENROLLED: return 404;
+            default: return 409; // full, already enrolled or waitlisted
+        }
+    }
+
+    private void export(HttpExchange ex) throws IOException {
+        CsvExporter exporter = service.store().exporter();
+        Map<String, String> params = query(ex);
+        for (Map.Entry<String, String> p : params.entrySet()) {
+            if (p.getKey().equals("split")) throw new ApiException(400, "split is only available from the console");
+            exporter.option(p.getKey(), p.getValue());
+        }
+        boolean gzip = params.containsKey("gzip") && !"false".equalsIgnoreCase(params.get("gzip"));
+        ex.getResponseHeaders().set("Content-Type", gzip ? "application/gzip" : "text/csv; charset=utf-8");
+        ex.sendResponseHeaders(200, 0); // chunked: rows are streamed as they are written
+        exporter.export(ex.getResponseBody());
+    }
+
+    // -------------------- JSON bodies --------------------
+    private String studentJson(Student s) {
+        StringBuilder sb = new StringBuilder("{\"id\":");
+        Json.appendQuoted(sb, s.getStudentId());
+        sb.append(",\"name\":");
+        Json.appendQuoted(sb, s.getName());
+        sb.append(",\"courses\":[");
+        List<String> courses = repo.studentCourses(s.getStudentId());
+        for (int i = 0; i < courses.size(); i++) {
+            if (i > 0) sb.append(',');
+            Json.appendQuoted(sb, courses.get(i));
+        }
+        return sb.append("],\"credits\":").append(repo.studentCredits(s.getStudentId())).append('}').toString();
+    }
+
+    private String courseJson(Course c) {
+        StringBuilder sb = new StringBuilder("{\"id\":");
+        Json.appendQuoted(sb, c.getCourseId());
+        sb.append(",\"name\":");
+        Json.appendQuoted(sb, c.getCourseName());
+        return sb.append(",\"credits\":").append(c.getCredits())
+                .append(",\"capacity\":").append(c.getCapacity())
+                .append(",\"enrolled\":").append(repo.enrolledCount(c.getCourseId()))
+                .append(",\"waitlist\":").append(repo.waitlistSize(c.getCourseId()))
+                .append(",\"schedule\":").append(Json.quote(Schedule.format(c.getSlots())))
+                .append('}').toString();
+    }
+
+    private static String waitlistJson(Waitlist w) {
+        StringBuilder sb = new StringBuilder("{\"waiting\":[");
+        List<Waitlist.Entry> entries = w == null ? Collections.emptyList() : w.entries();
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"student\":");
+            Json.appendQuoted(sb, entries.get(i).getStudentId());
+            sb.append(",\"priority\":").append(entries.get(i).getPriority()).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String text(Map<String, Object> json, String key) {
+        Object v = json.get(key);
+        if (!(v instanceof String) || ((String) v).trim().isEmpty()) throw new ApiException(400, "\"" + key + "\" must be a non-empty string");
+        return ((String) v).trim();
+    }
+
+    // May be empty, unlike text()
+    private static String string(Map<String, Object> json, String key) {
+        Object v = json.get(key);
+        if (!(v instanceof String)) throw new ApiException(400, "\"" + key + "\" must be a string");
+        return (String) v;
+    }
+
+    private static int number(Map<String, Object> json, String key) {
+        Object v = json.get(key);
+        if (!(v instanceof Long) || (Long) v != ((Long) v).intValue()) throw new ApiException(400, "\"" + key + "\" must be an integer");
+        return ((Long) v).intValue();
+    }
+
+    // -------------------- HTTP plumbing --------------------
+    private static void only(String method, String allowed, boolean pathMatches) {
+        if (!pathMatches) throw new ApiException(404, "no such resource");
+        if (!method.equals(allowed)) throw new ApiException(405, "method not allowed");
+    }
+
+    // Listings are streamed (chunked) straight from the report renderer
+    private ReportRenderer report(HttpExchange ex) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", JSON);
+        ex.sendResponseHeaders(200, 0);
+        return new ReportRenderer(repo, ex.getResponseBody(), ReportRenderer.Format.JSON);
+    }
+
+    private static void sendResult(HttpExchange ex, EnrollmentEngine.Result result, int status) throws IOException {
+        sendJson(ex, status, "{\"result\":" + Json.quote(result.name()) + "}");
+    }
+
+    private static void sendError(HttpExchange ex, int status, String message) {
+        try {
+            sendJson(ex, status, "{\"error\":" + Json.quote(message) + "}");
+        } catch (IOException | IllegalStateException e) {
+            // headers already sent (e.g. a streamed listing failed midway); the connection is closed
+        }
+    }
+
+    private static void sendJson(HttpExchange ex, int status, String json) throws IOException {
+        send(ex, status, JSON, json + "\n");
+    }
+
+    private static void send(HttpExchange ex, int status, String contentType, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", contentType);
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // The whole body is read even when unused, so the connection can be reused
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String[] segments(String rawPath) {
+        List<String> parts = new ArrayList<>();
+        for (String part : rawPath.split("/")) {
+            if (!part.isEmpty()) parts.add(URLDecoder.decode(part.replace("+", "%2B"), StandardCharsets.UTF_8));
+        }
+        return parts.toArray(new String[0]);
+    }
+
+    // Query parameters; a key without '=' (a flag) maps to ""
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> params = new LinkedHashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key.toLowerCase(), value);
+        }
+        return params;
+    }
+}
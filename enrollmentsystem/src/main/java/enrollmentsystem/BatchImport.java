@@ -0,0 +1,193 @@
+// BatchImport.java
+// Non-interactive bulk import: streams CSV files of students, courses and enrollment requests into
+// the repository and saves everything with one compaction instead of one journal record per change.
+// Inputs use the data file formats (students.txt: id,name; courses.txt: id,name,credits,capacity
+// [,meeting times]; enrollments.txt: studentId,courseId); a header line naming the ID column is
+// skipped. Students are imported first, then courses, then requests in file order, so who gets the
+// last seats of a course is decided by position alone. Enrollment requests go through the engine,
+// which applies capacity and the enrollment rules.
+// Every rejected line (malformed, duplicate ID, unknown student or course, already enrolled, full,
+// refused by the rules) is written to a CSV report with its file, line number and reason.
+
+package enrollmentsystem;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Locale;
+
+public class BatchImport {
+    public static final Path DEFAULT_REPORT = Paths.get("rejections.csv");
+
+    private final EnrollmentRepository repo;
+    private final EnrollmentEngine engine;
+    private final DataStore store;
+    private final Metrics metrics;
+    private Path students;
+    private Path courses;
+    private Path enrollments;
+    private Path report = DEFAULT_REPORT;
+
+    private int studentsAdded;
+    private int coursesAdded;
+    private int enrolled;
+    private int rejected;
+
+    public BatchImport(EnrollmentRepository repo, EnrollmentEngine engine, DataStore store, Metrics metrics) {
+        this.repo = repo;
+        this.engine = engine;
+        this.store = store;
+        this.metrics = metrics;
+    }
+
+    // Options as words, e.g. "students=new.csv courses=fall.csv enrollments=requests.csv report=out.csv";
+    // throws IllegalArgumentException
+    public BatchImport options(String... words) {
+        for (String word : words) {
+            int eq = word.indexOf('=');
+            if (eq <= 0 || eq == word.length() - 1) throw new IllegalArgumentException("expected name=file, not '" + word + "'");
+            Path file = Paths.get(word.substring(eq + 1));
+            switch (word.substring(0, eq).toLowerCase(Locale.ROOT)) {
+                case "students": students = file; break;
+                case "courses": courses = file; break;
+                case "enrollments": enrollments = file; break;
+                case "report": report = file; break;
+                default: throw new IllegalArgumentException("unknown option '" + word.substring(0, eq) + "'");
+            }
+        }
+        return this;
+    }
+
+    public BatchImport students(Path file) {
+        this.students = file;
+        return this;
+    }
+
+    public BatchImport courses(Path file) {
+        this.courses = file;
+        return this;
+    }
+
+    public BatchImport enrollments(Path file) {
+        this.enrollments = file;
+        return this;
+    }
+
+    public BatchImport report(Path file) {
+        this.report = file;
+        return this;
+    }
+
+    // Imports the given files into the loaded repository, then saves. Input files that do not
+    // exist are an error; nothing is imported from any of them.
+    public void run() throws IOException {
+        if (students == null && courses == null && enrollments == null) {
+            throw new IllegalArgumentException("nothing to import: give students=, courses= and/or enrollments=");
+        }
+        for (Path p : new Path[]{students, courses, enrollments}) {
+            if (p != null && !Files.isRegularFile(p)) throw new NoSuchFileException(p.toString());
+        }
+        long start = System.nanoTime();
+        try (Writer w = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            w.write("file,line,reason,record\n");
+            if (students != null) importStudents(w);
+            if (courses != null) importCourses(w);
+            if (enrollments != null) importEnrollments(w);
+        }
+        store.markAllChanged();
+        store.compact();
+        metrics.record(Metrics.Op.IMPORT, start);
+    }
+
+    public int getStudentsAdded() {
+        return studentsAdded;
+    }
+
+    public int getCoursesAdded() {
+        return coursesAdded;
+    }
+
+    public int getEnrolled() {
+        return enrolled;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public Path getReport() {
+        return report;
+    }
+
+    public String summary() {
+        return "Imported " + studentsAdded + " students, " + coursesAdded + " courses and " + enrolled + " enrollments; "
+                + rejected + " lines rejected" + (rejected > 0 ? " (see " + report + ")" : "") + ".";
+    }
+
+    private void importStudents(Writer w) throws IOException {
+        RecordTokenizer tok = new RecordTokenizer();
+        read(students, w, "studentid", line -> {
+            Student s = Student.fromRecord(tok.reset(line));
+            if (!repo.addStudent(s)) return "DUPLICATE_ID";
+            studentsAdded++;
+            return null;
+        });
+    }
+
+    private void importCourses(Writer w) throws IOException {
+        RecordTokenizer tok = new RecordTokenizer();
+        read(courses, w, "courseid", line -> {
+            Course c = Course.fromRecord(tok.reset(line));
+            if (c.getCredits() < 0 || c.getCapacity() < 0) throw new MalformedRecordException("credits and capacity must not be negative");
+            if (!repo.addCourse(c)) return "DUPLICATE_ID";
+            coursesAdded++;
+            return null;
+        });
+    }
+
+    private void importEnrollments(Writer w) throws IOException {
+        RecordTokenizer tok = new RecordTokenizer();
+        read(enrollments, w, "studentid", line -> {
+            Enrollment e = Enrollment.fromRecord(tok.reset(line));
+            EnrollmentEngine.Result r = engine.enroll(e.getStudentId(), e.getCourseId());
+            if (r != EnrollmentEngine.Result.ENROLLED) return r.name();
+            enrolled++;
+            return null;
+        });
+    }
+
+    private interface LineImporter {
+        // Applies one line; returns why it was rejected, or null
+        String apply(CharSequence line);
+    }
+
+    // Malformed lines are rejected like any other, rather than only logged
+    private void read(Path file, Writer w, String header, LineImporter importer) throws IOException {
+        String name = file.getFileName().toString();
+        IOException[] failed = new IOException[1];
+        RecordReader.read(file, (line, lineNumber) -> {
+            if (failed[0] != null || (lineNumber == 1 && isHeader(line, header))) return;
+            String reason;
+            try {
+                reason = importer.apply(line);
+            } catch (MalformedRecordException e) {
+                reason = "MALFORMED: " + e.getMessage();
+            }
+            if (reason == null) return;
+            rejected++;
+            try {
+                w.write(CsvExporter.quote(name) + "," + lineNumber + "," + CsvExporter.quote(reason) + "," + CsvExporter.quote(line.toString()) + "\n");
+            } catch (IOException e) {
+                failed[0] = e;
+            }
+        });
+        if (failed[0] != null) throw failed[0];
+    }
+
+    // e.g. "studentId,name" or "student_id,course_id"
+    private static boolean isHeader(CharSequence line, String idColumn) {
+        String first = new RecordTokenizer(line).next(',').replace("_", "").toLowerCase(Locale.ROOT);
+        return first.equals(idColumn) || first.equals("id");
+    }
+}
@@ -0,0 +1,193 @@
+// BinarySnapshot.java
+// Compact binary image of the whole repository for fast cold start.
+//
+// Layout (big-endian):
+//   header      magic "ENRS", format version
+//   dictionary  section: every distinct ID and name once, as length-prefixed UTF-8
+//   students    section: (idRef, nameRef) per student
+//   courses     section: (idRef, nameRef, credits, capacity, slots) per course
+//   rules       section: (maxCredits, rejectConflicts) once
+//   enrollments section: (studentRef, courseRef) per enrollment
+//   trailer     CRC32 of everything before it
+// Each section is a tag, its byte length and a record count, so a reader can verify or skip it.
+// Version 1 files (no meeting slots, no rules section) still load, with the default rules.
+
+package enrollmentsystem;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+public class BinarySnapshot {
+    private static final int MAGIC = 0x454E5253; // "ENRS"
+    private static final int VERSION = 2;
+
+    private static final int DICTIONARY = 1;
+    private static final int STUDENTS = 2;
+    private static final int COURSES = 3;
+    private static final int ENROLLMENTS = 4;
+    private static final int RULES = 5;
+
+    private BinarySnapshot() {
+    }
+
+    // Usable only if it exists and no text data file was written after it (e.g. edited by hand)
+    public static boolean isCurrent(Path snapshot, Path... textFiles) throws IOException {
+        if (!Files.exists(snapshot)) return false;
+        FileTime written = Files.getLastModifiedTime(snapshot);
+        for (Path p : textFiles) {
+            if (Files.exists(p) && Files.getLastModifiedTime(p).compareTo(written) > 0) return false;
+        }
+        return true;
+    }
+
+    // Writes and fsyncs a temporary file, then renames it, so a crash never leaves a half-written snapshot in place
+    public static void write(Path file, EnrollmentRepository repo) throws IOException {
+        // Build the string dictionary: each ID or name is stored once and referenced by index
+        Map<String, Integer> refs = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        Collection<Student> students = new ArrayList<>(repo.getStudents());
+        Collection<Course> courses = new ArrayList<>(repo.getCourses());
+        Collection<Enrollment> enrollments = new ArrayList<>(repo.getEnrollments());
+        for (Student s : students) {
+            intern(refs, strings, s.getStudentId());
+            intern(refs, strings, s.getName());
+        }
+        for (Course c : courses) {
+            intern(refs, strings, c.getCourseId());
+            intern(refs, strings, c.getCourseName());
+        }
+        for (Enrollment e : enrollments) {
+            intern(refs, strings, e.getStudentId());
+            intern(refs, strings, e.getCourseId());
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream raw = Channels.newOutputStream(channel);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(raw, crc), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            long dictionaryBytes = 4;
+            for (byte[] b : strings) dictionaryBytes += 4 + b.length;
+            beginSection(out, DICTIONARY, dictionaryBytes, strings.size());
+            for (byte[] b : strings) {
+                out.writeInt(b.length);
+                out.write(b);
+            }
+
+            beginSection(out, STUDENTS, 4 + 8L * students.size(), students.size());
+            for (Student s : students) {
+                out.writeInt(refs.get(s.getStudentId()));
+                out.writeInt(refs.get(s.getName()));
+            }
+
+            beginSection(out, COURSES, 4 + 24L * courses.size(), courses.size());
+            for (Course c : courses) {
+                out.writeInt(refs.get(c.getCourseId()));
+                out.writeInt(refs.get(c.getCourseName()));
+                out.writeInt(c.getCredits());
+                out.writeInt(c.getCapacity());
+                out.writeLong(c.getSlots());
+            }
+
+            EnrollmentRules rules = repo.getRules();
+            beginSection(out, RULES, 4 + 8, 1);
+            out.writeInt(rules.getMaxCredits());
+            out.writeInt(rules.rejectsConflicts() ? 1 : 0);
+
+            beginSection(out, ENROLLMENTS, 4 + 8L * enrollments.size(), enrollments.size());
+            for (Enrollment e : enrollments) {
+                out.writeInt(refs.get(e.getStudentId()));
+                out.writeInt(refs.get(e.getCourseId()));
+            }
+            out.flush();
+            // trailer is written past the checksummed stream
+            new DataOutputStream(raw).writeLong(crc.getValue());
+            channel.force(true);
+        }
+        DurableFiles.replace(tmp, file);
+    }
+
+    // Loads the snapshot into repo with one sequential pass over a memory-mapped file
+    public static void read(Path file, EnrollmentRepository repo) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 16) throw new IOException("snapshot truncated");
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            ByteBuffer body = buf.duplicate();
+            body.limit((int) (size - 8));
+            crc.update(body);
+            if (crc.getValue() != buf.getLong((int) (size - 8))) throw new IOException("snapshot checksum mismatch");
+
+            if (buf.getInt() != MAGIC) throw new IOException("not a snapshot file");
+            int version = buf.getInt();
+            if (version != VERSION && version != 1) throw new IOException("unsupported snapshot version " + version);
+
+            String[] strings = new String[section(buf, DICTIONARY)];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] b = new byte[buf.getInt()];
+                buf.get(b);
+                strings[i] = new String(b, StandardCharsets.UTF_8);
+            }
+
+            int count = section(buf, STUDENTS);
+            for (int i = 0; i < count; i++) {
+                repo.addStudent(new Student(strings[buf.getInt()], strings[buf.getInt()]));
+            }
+            count = section(buf, COURSES);
+            for (int i = 0; i < count; i++) {
+                String cid = strings[buf.getInt()];
+                String name = strings[buf.getInt()];
+                int credits = buf.getInt();
+                int capacity = buf.getInt();
+                long slots = version == 1 ? 0 : buf.getLong();
+                repo.addCourse(new Course(cid, name, credits, capacity, slots));
+            }
+            if (version > 1) {
+                section(buf, RULES);
+                int maxCredits = buf.getInt();
+                repo.setRules(new EnrollmentRules(maxCredits, buf.getInt() != 0));
+            }
+            count = section(buf, ENROLLMENTS);
+            for (int i = 0; i < count; i++) {
+                repo.addEnrollment(new Enrollment(strings[buf.getInt()], strings[buf.getInt()]));
+            }
+        } catch (RuntimeException e) {
+            // bad references or lengths in a file that passed the checksum
+            throw new IOException("snapshot corrupt: " + e, e);
+        }
+    }
+
+    private static void intern(Map<String, Integer> refs, List<byte[]> strings, String s) {
+        if (refs.containsKey(s)) return;
+        refs.put(s, strings.size());
+        strings.add(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void beginSection(DataOutputStream out, int tag, long bytes, int count) throws IOException {
+        out.writeInt(tag);
+        out.writeLong(bytes);
+        out.writeInt(count);
+    }
+
+    // Reads a section header and returns its record count
+    private static int section(ByteBuffer buf, int expectedTag) throws IOException {
+        int tag = buf.getInt();
+        if (tag != expectedTag) throw new IOException("expected snapshot section " + expectedTag + " but found " + tag);
+        buf.getLong(); // byte length, for readers that skip sections
+        return buf.getInt();
+    }
+}
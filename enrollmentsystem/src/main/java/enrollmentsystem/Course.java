@@ -0,0 +1,92 @@
+// Course.java
+// Course class with file-record helpers and display method.
+
+package enrollmentsystem;
+
+public class Course {
+    private String courseId;
+    private volatile String courseName; // renamed while snapshots and listings read it
+    private int credits;
+    private volatile int capacity; // read by concurrent seat reservations
+    private volatile long slots; // meeting times, see Schedule
+
+    public Course(String courseId, String courseName, int credits, int capacity) {
+        this(courseId, courseName, credits, capacity, 0);
+    }
+
+    public Course(String courseId, String courseName, int credits, int capacity, long slots) {
+        this.courseId = courseId;
+        this.courseName = courseName;
+        this.credits = credits;
+        this.capacity = capacity;
+        this.slots = slots;
+    }
+
+    // Getters & Setters (encapsulation)
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public String getCourseName() {
+        return courseName;
+    }
+
+    public int getCredits() {
+        return credits;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getSlots() {
+        return slots;
+    }
+
+    public void setCourseName(String courseName) {
+        this.courseName = courseName;
+    }
+
+    public void setCredits(int credits) {
+        this.credits = credits;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Use EnrollmentRepository.updateSchedule so enrolled students' loads follow
+    public void setSlots(long slots) {
+        this.slots = slots;
+    }
+
+    public void displayInfo() {
+        System.out.printf("Course ID: %s | %s | Credits: %d | Capacity: %d%s%n",
+                courseId, courseName, credits, capacity, slots == 0 ? "" : " | Meets: " + Schedule.format(slots));
+    }
+
+    // File record format: courseId,courseName,credits,capacity,meetingTimes (e.g. MoWe9-11, may be empty)
+    public String toRecord() {
+        return String.format("%s,%s,%d,%d,%s", courseId, courseName.replace(",", " ").replace("\n", " ").replace("\r", " "), credits, capacity, Schedule.format(slots));
+    }
+
+    public static Course fromRecord(String line) {
+        return fromRecord(new RecordTokenizer(line));
+    }
+
+    // Malformed numbers are reported instead of defaulting to 0
+    public static Course fromRecord(RecordTokenizer tok) {
+        String cid = tok.next(',');
+        if (cid.isEmpty()) throw new MalformedRecordException("missing course ID");
+        String name = tok.next(',');
+        int credits = tok.nextInt(',', "credits");
+        int capacity = tok.nextInt(',', "capacity");
+        // files written before meeting times existed have four columns
+        String times = tok.next(',');
+        try {
+            return new Course(cid, name, credits, capacity, Schedule.parse(times));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedRecordException(e.getMessage());
+        }
+    }
+}
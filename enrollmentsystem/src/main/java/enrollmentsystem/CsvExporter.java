@@ -0,0 +1,287 @@
+// CsvExporter.java
+// Streams enrollments to CSV one course at a time through a buffered (optionally gzipped) stream,
+// so memory stays constant however many rows are written. Supports course/student filters,
+// joined name/credit columns, and one file per course written in parallel.
+// Each export reads one snapshot of the repository (EnrollmentSnapshot), so it lists exactly the
+// enrollments of one instant while registration goes on.
+
+package enrollmentsystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+public class CsvExporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Lists the files of the last split export in its directory, so the next one knows which it may delete
+    static final String MANIFEST = "export.manifest";
+
+    private final EnrollmentRepository repo;
+    private final Metrics metrics;
+    private String course; // exact ID, or a prefix ending in '*'
+    private String student;
+    private boolean joined;
+    private boolean gzip;
+    private boolean partitioned;
+
+    public CsvExporter(EnrollmentRepository repo, Metrics metrics) {
+        this.repo = repo;
+        this.metrics = metrics;
+    }
+
+    // Options as words, e.g. "course=IT* student=2024* joined gzip split"; throws IllegalArgumentException
+    public CsvExporter options(String line) {
+        for (String word : line.trim().split("\\s+")) {
+            if (word.isEmpty()) continue;
+            int eq = word.indexOf('=');
+            option(eq < 0 ? word : word.substring(0, eq), eq < 0 ? null : word.substring(eq + 1));
+        }
+        return this;
+    }
+
+    // One option; flags take no value or true/false (e.g. URL query parameters)
+    public CsvExporter option(String key, String value) {
+        switch (key.toLowerCase()) {
+            case "course": course = required(key, value); break;
+            case "student": student = required(key, value); break;
+            case "joined": joined = flag(key, value); break;
+            case "gzip": gzip = flag(key, value); break;
+            case "split": partitioned = flag(key, value); break;
+            default: throw new IllegalArgumentException("unknown option '" + key + "'");
+        }
+        return this;
+    }
+
+    private static boolean flag(String key, String value) {
+        if (value == null || value.isEmpty() || value.equalsIgnoreCase("true")) return true;
+        if (value.equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException(key + " is true or false");
+    }
+
+    private static String required(String key, String value) {
+        if (value == null || value.isEmpty()) throw new IllegalArgumentException(key + " needs a value, e.g. " + key + "=ID");
+        return value;
+    }
+
+    public CsvExporter course(String course) {
+        this.course = course;
+        return this;
+    }
+
+    public CsvExporter student(String student) {
+        this.student = student;
+        return this;
+    }
+
+    // Adds student_name, course_name and credits columns
+    public CsvExporter joined(boolean joined) {
+        this.joined = joined;
+        return this;
+    }
+
+    public CsvExporter gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    // One file per course instead of a single file
+    public CsvExporter partitioned(boolean partitioned) {
+        this.partitioned = partitioned;
+        return this;
+    }
+
+    // Default output name for the chosen options
+    public String defaultTarget(String baseName) {
+        return partitioned ? baseName : baseName + (gzip ? ".csv.gz" : ".csv");
+    }
+
+    // Writes every matching enrollment to target (a directory when partitioned); returns the number of rows
+    public long export(Path target) throws IOException {
+        return partitioned ? exportPartitioned(target) : exportFile(target);
+    }
+
+    private long exportFile(Path file) throws IOException {
+        long rows = export(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+        metrics.addBytesWritten(Files.size(file));
+        return rows;
+    }
+
+    // Streams every matching enrollment as one CSV (gzipped if chosen) and closes out; returns the number of rows
+    public long export(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (EnrollmentSnapshot snap = repo.snapshot(); Writer w = writer(out)) {
+            writeHeader(w);
+            for (Course c : courses(snap)) rows += writeCourse(w, c, snap);
+        }
+        metrics.record(Metrics.Op.EXPORT, start);
+        return rows;
+    }
+
+    // One file per matching course, written in parallel. dir must be new, empty or the directory of
+    // an earlier split export: its manifest names the files that export wrote, and once all the new
+    // ones are written, those of them this export did not rewrite are deleted. Nothing else in dir
+    // is touched. The manifest lists old and new files while they are written, so an export that
+    // fails halfway leaves none untracked.
+    private long exportPartitioned(Path dir) throws IOException {
+        long start = System.nanoTime();
+        Set<String> previous = previousExport(dir);
+        Files.createDirectories(dir);
+        EnrollmentSnapshot snap = repo.snapshot();
+        List<Course> courses = courses(snap);
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), courses.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<String> names = fileNames(courses);
+            Set<String> tracked = new TreeSet<>(previous);
+            tracked.addAll(names);
+            DurableFiles.writeLines(dir.resolve(MANIFEST), tracked);
+            List<Future<Long>> parts = new ArrayList<>();
+            for (int i = 0; i < courses.size(); i++) {
+                Course c = courses.get(i);
+                String name = names.get(i);
+                parts.add(pool.submit(() -> {
+                    Path file = dir.resolve(name);
+                    long rows;
+                    try (Writer w = open(file)) {
+                        writeHeader(w);
+                        rows = writeCourse(w, c, snap);
+                    }
+                    metrics.addBytesWritten(Files.size(file));
+                    return rows;
+                }));
+            }
+            long rows = 0;
+            for (Future<Long> part : parts) rows += part.get();
+            Set<String> written = new HashSet<>(names);
+            for (String name : previous) {
+                if (!written.contains(name)) Files.deleteIfExists(dir.resolve(name));
+            }
+            DurableFiles.writeLines(dir.resolve(MANIFEST), names);
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("export interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+            snap.close();
+            metrics.record(Metrics.Op.EXPORT, start);
+        }
+    }
+
+    private Writer open(Path file) throws IOException {
+        return writer(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    private Writer writer(OutputStream out) throws IOException {
+        if (gzip) out = new GZIPOutputStream(out, BUFFER_SIZE);
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    // An exact course ID reads just that course; anything else scans the course map
+    private List<Course> courses(EnrollmentView view) {
+        if (ReportQuery.isExact(course)) {
+            Course c = view.findCourse(course);
+            return c == null ? Collections.emptyList() : Collections.singletonList(c);
+        }
+        List<Course> list = new ArrayList<>();
+        for (Course c : view.getCourses()) {
+            if (ReportQuery.matches(course, c.getCourseId())) list.add(c);
+        }
+        return list;
+    }
+
+    private void writeHeader(Writer w) throws IOException {
+        w.write(joined ? "student_id,student_name,course_id,course_name,credits\n" : "student_id,course_id\n");
+    }
+
+    // Only one course's member list is held at a time
+    private long writeCourse(Writer w, Course c, EnrollmentView view) throws IOException {
+        String cid = c.getCourseId();
+        String courseColumns = joined ? "," + quote(cid) + "," + quote(c.getCourseName()) + "," + c.getCredits() + "\n" : "," + quote(cid) + "\n";
+        long rows = 0;
+        for (String sid : view.courseMembers(cid)) {
+            if (!ReportQuery.matches(student, sid)) continue;
+            Student s = joined ? view.findStudent(sid) : null;
+            if (joined && s == null) continue;
+            w.write(quote(sid));
+            if (joined) {
+                w.write(',');
+                w.write(quote(s.getName()));
+            }
+            w.write(courseColumns);
+            rows++;
+        }
+        return rows;
+    }
+
+    // RFC 4180 quoting, only when needed
+    static String quote(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char ch = field.charAt(i);
+            if (ch == ',' || ch == '"' || ch == '\n' || ch == '\r') return '"' + field.replace("\"", "\"\"") + '"';
+        }
+        return field;
+    }
+
+    // One file name per course, never the same for two courses, even on a case-insensitive file
+    // system: IDs are percent-encoded, and names that differ only in case get the ID's hash appended.
+    // Fails rather than let two courses write one file.
+    private List<String> fileNames(List<Course> courses) throws IOException {
+        Map<String, Integer> folded = new HashMap<>();
+        for (Course c : courses) folded.merge(encode(c.getCourseId()).toLowerCase(Locale.ROOT), 1, Integer::sum);
+        List<String> names = new ArrayList<>(courses.size());
+        Set<String> taken = new HashSet<>();
+        for (Course c : courses) {
+            String cid = c.getCourseId();
+            String name = encode(cid);
+            if (folded.get(name.toLowerCase(Locale.ROOT)) > 1) name += "~" + Integer.toHexString(cid.hashCode());
+            name += gzip ? ".csv.gz" : ".csv";
+            if (!taken.add(name.toLowerCase(Locale.ROOT))) throw new IOException("two course IDs map to the file name " + name);
+            names.add(name);
+        }
+        return names;
+    }
+
+    // Course IDs are free text; letters, digits, '.', '_' and '-' are kept and every other byte
+    // (and a leading '.', so no name is hidden or "..") becomes %XX
+    static String encode(String cid) {
+        StringBuilder sb = new StringBuilder();
+        byte[] bytes = cid.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            boolean plain = (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || (b >= '0' && b <= '9')
+                    || b == '_' || b == '-' || (b == '.' && i > 0);
+            if (plain) sb.append((char) b);
+            else sb.append('%').append(Character.toUpperCase(Character.forDigit(b >> 4, 16))).append(Character.toUpperCase(Character.forDigit(b & 0xf, 16)));
+        }
+        return sb.toString();
+    }
+
+    // Files listed in dir's manifest; empty for a missing or empty dir, and refuses any other dir
+    // without a manifest, since its files are not this exporter's to replace or delete
+    private static Set<String> previousExport(Path dir) throws IOException {
+        Set<String> names = new HashSet<>();
+        if (!Files.isDirectory(dir)) return names;
+        Path manifest = dir.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                if (files.iterator().hasNext()) throw new IOException(dir + " is not empty and holds no earlier split export; choose a new or empty directory");
+            }
+            return names;
+        }
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            // only names this exporter could have written: nothing outside dir, nothing but CSV files
+            if (line.isEmpty() || line.indexOf('/') >= 0 || line.indexOf('\\') >= 0 || !(line.endsWith(".csv") || line.endsWith(".csv.gz"))) continue;
+            names.add(line);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,558 @@
+// DataStore.java
+// File persistence for one data directory: text data files, waitlists, binary snapshot, journal and CSV export.
+// Mutations are buffered in the journal and return at once. A background writer thread commits
+// them in groups (one fsync per batch, every few milliseconds or as soon as a batch fills) and
+// compacts the journal into the data files, rewriting only the files that changed.
+// sync() and compact() are the durability barriers.
+// With lazy student loading, only courses, enrollments and waitlists are read at load; students
+// come from students.txt through its offset index (see StudentFile) as they are needed.
+// With shards, students and enrollments are partitioned by student ID (see ShardLayout): shards
+// load in parallel, and a compaction rewrites only the shards holding changed students, also in
+// parallel. Each load reads whichever layout is on disk; the next compaction writes the configured
+// one and removes the other.
+
+package enrollmentsystem;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class DataStore {
+    // Mutations are appended to the journal; it is folded into the data files after this many records
+    public static final int COMPACT_THRESHOLD = 1000;
+    // Group commit: buffered records are flushed at least this often, or once this many are waiting
+    public static final long FLUSH_INTERVAL_MILLIS = 20;
+    public static final int FLUSH_BATCH = 256;
+
+    // Data files a mutation leaves out of date until the next compaction
+    private static final int STUDENTS = 1;
+    private static final int COURSES = 2;
+    private static final int ENROLLMENTS = 4;
+    private static final int WAITLISTS = 8;
+    private static final int ALL = STUDENTS | COURSES | ENROLLMENTS | WAITLISTS;
+    // Files that are split into shards when sharding is on
+    private static final int SHARDED = STUDENTS | ENROLLMENTS;
+
+    private final Path studentsFile;
+    private final Path coursesFile;
+    private final Path enrollmentsFile;
+    private final Path waitlistsFile;
+    private final Path snapshotFile;
+    private final Path studentIndexFile;
+    private final ShardLayout layout;
+    private final EnrollmentRepository repo;
+    private final Journal journal;
+    private final Metrics metrics;
+
+    // Appends share the read lock; compaction takes the write lock just to rotate the journal and
+    // take the dirty set, so both describe the same point in the mutation history
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+    // Nothing has been written by this store yet, so every file counts as dirty until load()
+    private final AtomicInteger dirty = new AtomicInteger(ALL);
+    // With shards, the SHARDED bits of a change to one student go here instead, by shard
+    private volatile AtomicIntegerArray shardDirty = new AtomicIntegerArray(0);
+    private final Object compactLock = new Object();
+
+    private volatile long flushIntervalMillis = FLUSH_INTERVAL_MILLIS;
+    private volatile int flushBatch = FLUSH_BATCH;
+    private Thread writer;
+    private volatile boolean closed;
+    private boolean writerFailing;
+
+    // Also write a binary snapshot on save; loading prefers it and falls back to the text files
+    private boolean writeBinarySnapshot = true;
+    // Students kept in memory when loading lazily; 0 loads every student
+    private int lazyStudentCache;
+    // Shards to write students and enrollments in; 0 keeps the single files
+    private int shards;
+    // Layout found by the last load(): its shard count, or 0 for single files
+    private int shardsOnDisk;
+
+    public DataStore(Path dir, EnrollmentRepository repo) {
+        this(dir, repo, new Metrics());
+    }
+
+    public DataStore(Path dir, EnrollmentRepository repo, Metrics metrics) {
+        this.metrics = metrics;
+        this.studentsFile = dir.resolve("students.txt");
+        this.coursesFile = dir.resolve("courses.txt");
+        this.enrollmentsFile = dir.resolve("enrollments.txt");
+        this.waitlistsFile = dir.resolve("waitlists.txt");
+        this.snapshotFile = dir.resolve("snapshot.bin");
+        this.studentIndexFile = dir.resolve("students.idx");
+        this.layout = new ShardLayout(dir);
+        this.repo = repo;
+        this.journal = new Journal(dir.resolve("journal.log"), COMPACT_THRESHOLD);
+    }
+
+    public void setWriteBinarySnapshot(boolean writeBinarySnapshot) {
+        this.writeBinarySnapshot = writeBinarySnapshot;
+    }
+
+    // Loads students on demand, keeping up to cacheSize of them that have not changed since the
+    // last save in memory; 0 (the default) loads everything
+    public void setLazyStudents(int cacheSize) {
+        this.lazyStudentCache = Math.max(0, cacheSize);
+    }
+
+    // Partitions students and enrollments into this many shard files from the next compaction on;
+    // 0 (the default) keeps the single files. Set before load(). Lazy loading needs single files.
+    public void setShards(int shards) {
+        this.shards = Math.max(0, shards);
+        this.shardDirty = new AtomicIntegerArray(this.shards);
+    }
+
+    // 0 commits every mutation before logMutation returns (one fsync each)
+    public void setFlushInterval(long millis) {
+        this.flushIntervalMillis = millis;
+    }
+
+    public void setFlushBatch(int records) {
+        this.flushBatch = Math.max(1, records);
+    }
+
+    // -------------------- Load --------------------
+    // Replaces the repository contents with snapshot (or text files) plus journal
+    public void load() {
+        long start = System.nanoTime();
+        repo.clear();
+        shardsOnDisk = readShardCount();
+        boolean lazy = lazyStudentCache > 0 && shards == 0 && shardsOnDisk == 0;
+        if (lazyStudentCache > 0 && !lazy) System.out.println("Loading all students (lazy loading needs the single-file layout).");
+        if (shardsOnDisk > 0) {
+            loadShards();
+        } else if (lazy && attachStudentFile()) {
+            // the snapshot holds every student, so it is not used here
+            loadCourses();
+            loadEnrollments(enrollmentsFile);
+        } else if (!loadSnapshot()) {
+            // each file is streamed straight into the repository, one reused line buffer at a time
+            loadStudents(studentsFile);
+            loadCourses();
+            loadEnrollments(enrollmentsFile);
+        }
+        // not part of the snapshot: always read from text, in queue order
+        loadWaitlists();
+        // Replay mutations made since the last compaction; the files they touch are rewritten next time
+        dirty.set(0);
+        shardDirty = new AtomicIntegerArray(shards);
+        try {
+            int replayed = journal.replay(f -> {
+                applyJournalRecord(f);
+                markDirty(f[0], f.length > 1 ? f[1] : null);
+            });
+            if (replayed > 0) System.out.println("Replayed " + replayed + " journal records.");
+        } catch (IOException e) {
+            System.out.println("Failed to replay journal: " + e.getMessage());
+        }
+        metrics.record(Metrics.Op.LOAD, start);
+    }
+
+    // Returns false (with an empty repository) when the text files must be parsed instead
+    private boolean loadSnapshot() {
+        try {
+            if (!BinarySnapshot.isCurrent(snapshotFile, studentsFile, coursesFile, enrollmentsFile)) return false;
+            BinarySnapshot.read(snapshotFile, repo);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Ignoring binary snapshot (" + e.getMessage() + "), loading text files.");
+            repo.clear();
+            return false;
+        }
+    }
+
+    // Falls back to loading every student if students.txt cannot be mapped
+    private boolean attachStudentFile() {
+        try {
+            repo.attach(StudentFile.open(studentsFile, studentIndexFile, lazyStudentCache));
+            return true;
+        } catch (IOException e) {
+            System.out.println("Loading all students (" + e.getMessage() + ").");
+            return false;
+        }
+    }
+
+    // An unreadable layout file leaves the single files to load
+    private int readShardCount() {
+        try {
+            return layout.count();
+        } catch (IOException | MalformedRecordException e) {
+            System.out.println("Ignoring shard layout (" + e.getMessage() + "), loading single files.");
+            return 0;
+        }
+    }
+
+    // Student shards load side by side with the courses; enrollment shards need both
+    private void loadShards() {
+        ForkJoinTask<?> courses = ForkJoinPool.commonPool().submit(this::loadCourses);
+        IntStream.range(0, shardsOnDisk).parallel().forEach(i -> loadStudents(layout.students(shardsOnDisk, i)));
+        courses.join();
+        IntStream.range(0, shardsOnDisk).parallel().forEach(i -> loadEnrollments(layout.enrollments(shardsOnDisk, i)));
+    }
+
+    private void loadStudents(Path file) {
+        RecordTokenizer tok = new RecordTokenizer();
+        try {
+            RecordReader.read(file, (line, lineNumber) -> repo.addStudent(Student.fromRecord(tok.reset(line))));
+        } catch (IOException e) {
+            System.out.println("Failed to load students: " + e.getMessage());
+        }
+    }
+
+    private void loadCourses() {
+        RecordTokenizer tok = new RecordTokenizer();
+        try {
+            RecordReader.read(coursesFile, (line, lineNumber) -> {
+                if (EnrollmentRules.isRecord(line)) repo.setRules(EnrollmentRules.fromRecord(tok.reset(line)));
+                else repo.addCourse(Course.fromRecord(tok.reset(line)));
+            });
+        } catch (IOException e) {
+            System.out.println("Failed to load courses: " + e.getMessage());
+        }
+    }
+
+    private void loadEnrollments(Path file) {
+        RecordTokenizer tok = new RecordTokenizer();
+        try {
+            // duplicate lines are ignored
+            RecordReader.read(file, (line, lineNumber) -> repo.addEnrollment(Enrollment.fromRecord(tok.reset(line))));
+        } catch (IOException e) {
+            System.out.println("Failed to load enrollments: " + e.getMessage());
+        }
+    }
+
+    private void loadWaitlists() {
+        RecordTokenizer tok = new RecordTokenizer();
+        try {
+            RecordReader.read(waitlistsFile, (line, lineNumber) -> {
+                tok.reset(line);
+                String cid = tok.next(',');
+                String sid = tok.next(',');
+                if (cid.isEmpty() || sid.isEmpty()) throw new MalformedRecordException("expected courseId,studentId,priority");
+                int priority = tok.nextInt(',', "priority");
+                // the snapshot is written after this file, so it may already lack a deleted student
+                // or course; their delete in the journal would then find nothing to take this place
+                // from. A place joined after a re-add is in the journal and comes back on replay.
+                if (repo.findStudent(sid) == null || repo.findCourse(cid) == null) return;
+                repo.addToWaitlist(sid, cid, priority);
+            });
+        } catch (IOException e) {
+            System.out.println("Failed to load waitlists: " + e.getMessage());
+        }
+    }
+
+    // -------------------- Save --------------------
+    // Durability barrier and compaction: makes everything logged so far durable, rewrites the data
+    // files that changed since the last compaction (plus any that are missing) and drops the journal
+    // records they now hold. Mutations may continue while the files are written; they land in the
+    // new journal segment and are replayed on top, which is harmless since replay is idempotent.
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            long start = System.nanoTime();
+            int files;
+            int[] shardFiles = new int[shards];
+            journalLock.writeLock().lock();
+            try {
+                journal.rotate();
+                files = dirty.getAndSet(0);
+                for (int i = 0; i < shardFiles.length; i++) shardFiles[i] = shardDirty.getAndSet(i, 0);
+            } finally {
+                journalLock.writeLock().unlock();
+            }
+            long bytes = 0;
+            try {
+                // leaving the sharded layout rewrites both single files
+                boolean unshard = shards == 0 && shardsOnDisk > 0;
+                if (shards == 0 && ((files & STUDENTS) != 0 || unshard || !Files.exists(studentsFile))) bytes += saveStudents();
+                // enrollments and waitlists go after the courses, so a course deleted meanwhile is
+                // either missing from all of them or has its delete in the new journal segment
+                if ((files & COURSES) != 0 || !Files.exists(coursesFile)) bytes += saveCourses();
+                if (shards > 0) bytes += saveShards(files, shardFiles);
+                else if ((files & ENROLLMENTS) != 0 || unshard || !Files.exists(enrollmentsFile)) bytes += saveEnrollments();
+                if ((files & WAITLISTS) != 0 || !Files.exists(waitlistsFile)) bytes += saveWaitlists();
+                // written last so it is never older than the text files it mirrors; not when loading
+                // lazily, since it would need every student in memory, nor for shards, which load
+                // in parallel instead
+                if (writeBinarySnapshot && shards == 0 && repo.studentFile() == null && ((files & ~WAITLISTS) != 0
+                        || !BinarySnapshot.isCurrent(snapshotFile, studentsFile, coursesFile, enrollmentsFile))) {
+                    BinarySnapshot.write(snapshotFile, repo);
+                    bytes += Files.size(snapshotFile);
+                }
+                if (unshard) {
+                    layout.remove();
+                    shardsOnDisk = 0;
+                }
+                journal.deletePrevious();
+            } catch (IOException e) {
+                // the old segment stays until a retry succeeds
+                dirty.accumulateAndGet(files, (a, b) -> a | b);
+                for (int i = 0; i < shardFiles.length; i++) shardDirty.accumulateAndGet(i, shardFiles[i], (a, b) -> a | b);
+                throw e;
+            }
+            metrics.recordSave(bytes);
+            metrics.record(Metrics.Op.SAVE, start);
+        }
+    }
+
+    // For changes made straight to the repository without logMutation (a bulk import): the next
+    // compaction rewrites every data file, so they are saved in that one pass
+    public void markAllChanged() {
+        dirty.accumulateAndGet(ALL, (x, y) -> x | y);
+    }
+
+    // Each save returns the size of the file it wrote
+    private long saveStudents() throws IOException {
+        StudentFile lazy = repo.studentFile();
+        if (lazy != null) return lazy.save(repo, repo.heldStudents());
+        List<String> lines = repo.getStudents().stream()
+                .map(s -> s.toRecord(repo.studentCourses(s.getStudentId()))).collect(Collectors.toList());
+        return DurableFiles.writeLines(studentsFile, lines);
+    }
+
+    // Rewrites the shards that hold changed students, or every shard when all students changed or
+    // the layout on disk is different. One pass over the students picks out the members of those
+    // shards; each shard is then formatted and written on its own fork-join task. A different count
+    // writes a new set of files, so the old set stays loadable until layout.txt names the new one.
+    private long saveShards(int files, int[] shardFiles) throws IOException {
+        boolean relayout = shardsOnDisk != shards;
+        int[] write = new int[shards];
+        List<List<Student>> members = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            write[i] = shardFiles[i] | (files & SHARDED) | (relayout ? SHARDED : 0);
+            if (!Files.exists(layout.students(shards, i))) write[i] |= STUDENTS;
+            if (!Files.exists(layout.enrollments(shards, i))) write[i] |= ENROLLMENTS;
+            members.add(new ArrayList<>());
+        }
+        for (Student s : repo.getStudents()) {
+            int i = ShardLayout.shardOf(s.getStudentId(), shards);
+            if (write[i] != 0) members.get(i).add(s);
+        }
+        layout.createDirectory();
+        AtomicLong bytes = new AtomicLong();
+        ShardLayout.forEach(IntStream.range(0, shards).filter(i -> write[i] != 0).toArray(), i -> {
+            if ((write[i] & STUDENTS) != 0) {
+                List<String> lines = new ArrayList<>(members.get(i).size());
+                for (Student s : members.get(i)) lines.add(s.toRecord(repo.studentCourses(s.getStudentId())));
+                bytes.addAndGet(DurableFiles.writeLines(layout.students(shards, i), lines));
+            }
+            if ((write[i] & ENROLLMENTS) != 0) {
+                List<String> lines = new ArrayList<>();
+                for (Student s : members.get(i)) {
+                    for (String cid : repo.studentCourses(s.getStudentId())) lines.add(new Enrollment(s.getStudentId(), cid).toRecord());
+                }
+                bytes.addAndGet(DurableFiles.writeLines(layout.enrollments(shards, i), lines));
+            }
+        });
+        if (relayout) {
+            // the single files (and what is derived from them) are replaced once the layout is recorded
+            layout.commit(shards);
+            for (Path p : new Path[]{studentsFile, enrollmentsFile, snapshotFile, studentIndexFile}) Files.deleteIfExists(p);
+            shardsOnDisk = shards;
+        }
+        return bytes.get();
+    }
+
+    // The enrollment rules go first, then one line per course
+    private long saveCourses() throws IOException {
+        List<String> lines = new ArrayList<>(repo.courseCount() + 1);
+        lines.add(repo.getRules().toRecord());
+        for (Course c : repo.getCourses()) lines.add(c.toRecord());
+        return DurableFiles.writeLines(coursesFile, lines);
+    }
+
+    private long saveEnrollments() throws IOException {
+        List<String> lines = repo.getEnrollments().stream().map(Enrollment::toRecord).collect(Collectors.toList());
+        return DurableFiles.writeLines(enrollmentsFile, lines);
+    }
+
+    // File record format: courseId,studentId,priority, each waitlist in promotion order
+    private long saveWaitlists() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Waitlist> w : repo.getWaitlists().entrySet()) {
+            if (repo.findCourse(w.getKey()) == null) continue;
+            for (Waitlist.Entry e : w.getValue().entries()) {
+                if (repo.findStudent(e.getStudentId()) != null) lines.add(w.getKey() + "," + e.getStudentId() + "," + e.getPriority());
+            }
+        }
+        return DurableFiles.writeLines(waitlistsFile, lines);
+    }
+
+    // -------------------- Journal --------------------
+    // Buffers one record for a mutation and marks the files it changes; does not wait for the disk
+    // unless the flush interval is 0. Safe to call from many threads.
+    public void logMutation(String type, Object... fields) throws IOException {
+        long start = System.nanoTime();
+        journalLock.readLock().lock();
+        try {
+            metrics.addBytesWritten(journal.append(type, fields));
+            markDirty(type, fields.length > 0 ? fields[0] : null);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        metrics.record(Metrics.Op.JOURNAL_APPEND, start);
+        if (flushIntervalMillis <= 0 || closed) {
+            sync();
+        } else {
+            Thread w = writer();
+            if (journal.buffered() >= flushBatch || journal.needsCompaction()) LockSupport.unpark(w);
+        }
+    }
+
+    // Durability barrier: returns once every mutation logged before the call is on disk
+    public void sync() throws IOException {
+        long start = System.nanoTime();
+        if (journal.flush() > 0) metrics.record(Metrics.Op.FLUSH, start);
+    }
+
+    // Stops the writer thread after a final flush; later mutations are committed one by one
+    public void close() throws IOException {
+        Thread w;
+        synchronized (this) {
+            closed = true;
+            w = writer;
+        }
+        if (w != null) {
+            LockSupport.unpark(w);
+            try {
+                w.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        journal.close();
+    }
+
+    private synchronized Thread writer() {
+        if (writer == null && !closed) {
+            writer = new Thread(this::runWriter, "enrollment-writer");
+            writer.setDaemon(true); // close() or a barrier flushes on the way out
+            writer.start();
+        }
+        return writer;
+    }
+
+    // Group commit loop: each pass flushes whatever accumulated and compacts when the journal is long.
+    // Failures are reported once and retried on the next pass; nothing buffered is dropped.
+    private void runWriter() {
+        while (!closed) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis)));
+            try {
+                sync();
+                if (journal.needsCompaction()) compact();
+                writerFailing = false;
+            } catch (IOException e) {
+                if (!writerFailing) System.out.println("Failed to save changes (will retry): " + e.getMessage());
+                writerFailing = true;
+            }
+        }
+    }
+
+    // With shards, a change to one student (the record's first field) dirties only that student's shard
+    private void markDirty(String type, Object student) {
+        int files = dirtied(type);
+        AtomicIntegerArray byShard = shardDirty;
+        if (byShard.length() > 0 && student != null && isPerStudent(type)) {
+            byShard.accumulateAndGet(ShardLayout.shardOf(student.toString(), byShard.length()), files & SHARDED, (a, b) -> a | b);
+            files &= ~SHARDED;
+        }
+        if (files != 0) dirty.accumulateAndGet(files, (a, b) -> a | b);
+    }
+
+    private static boolean isPerStudent(String type) {
+        switch (type) {
+            case Journal.ADD_STUDENT: case Journal.RENAME_STUDENT: case Journal.DELETE_STUDENT:
+            case Journal.ENROLL: case Journal.DROP: return true;
+            default: return false;
+        }
+    }
+
+    private static int dirtied(String type) {
+        switch (type) {
+            case Journal.ADD_STUDENT: case Journal.RENAME_STUDENT: return STUDENTS;
+            // waitlisted students promoted into the freed seats are logged as ENROLL records
+            case Journal.DELETE_STUDENT: return STUDENTS | ENROLLMENTS | WAITLISTS;
+            case Journal.ADD_COURSE: case Journal.CAPACITY: case Journal.RENAME_COURSE:
+            case Journal.SCHEDULE: case Journal.RULES: return COURSES;
+            case Journal.WAIT: return WAITLISTS;
+            // students.txt repeats each student's courses; an enrollment also ends a waitlist place
+            case Journal.ENROLL: case Journal.DROP: return STUDENTS | ENROLLMENTS | WAITLISTS;
+            default: return ALL; // deletes cascade
+        }
+    }
+
+    // Records are applied idempotently: the data files may already contain some of them.
+    // Bad records throw MalformedRecordException and are reported with their line number.
+    private void applyJournalRecord(String[] f) {
+        switch (f[0]) {
+            case Journal.ADD_STUDENT:
+                repo.addStudent(new Student(f[1], f[2]));
+                break;
+            case Journal.DELETE_STUDENT:
+                repo.removeStudent(f[1]);
+                break;
+            case Journal.ADD_COURSE:
+                int credits = new RecordTokenizer(f[2]).nextInt(',', "credits");
+                int capacity = new RecordTokenizer(f[3]).nextInt(',', "capacity");
+                repo.addCourse(new Course(f[1], f[4], credits, capacity));
+                break;
+            case Journal.DELETE_COURSE:
+                repo.removeCourse(f[1]);
+                break;
+            case Journal.ENROLL:
+                // concurrent requests may log an enrollment just after its course was deleted
+                if (repo.findStudent(f[1]) != null && repo.findCourse(f[2]) != null) repo.addEnrollment(new Enrollment(f[1], f[2]));
+                break;
+            case Journal.DROP:
+                if (!repo.removeEnrollment(f[1], f[2])) repo.removeFromWaitlist(f[1], f[2]);
+                break;
+            case Journal.WAIT:
+                // as for ENROLL: the student's or course's delete may already be in the data files,
+                // and then replaying it would not remove this waitlist place
+                if (repo.findStudent(f[1]) == null || repo.findCourse(f[2]) == null) break;
+                repo.addToWaitlist(f[1], f[2], new RecordTokenizer(f[3]).nextInt(',', "priority"));
+                break;
+            case Journal.CAPACITY:
+                repo.updateCapacity(f[1], new RecordTokenizer(f[2]).nextInt(',', "capacity"));
+                break;
+            case Journal.RENAME_STUDENT:
+                repo.renameStudent(f[1], f[2]);
+                break;
+            case Journal.RENAME_COURSE:
+                repo.renameCourse(f[1], f[2]);
+                break;
+            case Journal.SCHEDULE:
+                try {
+                    repo.updateSchedule(f[1], Schedule.parse(f[2]));
+                } catch (IllegalArgumentException e) {
+                    throw new MalformedRecordException(e.getMessage());
+                }
+                break;
+            case Journal.RULES:
+                repo.setRules(new EnrollmentRules(new RecordTokenizer(f[1]).nextInt(',', "maxCredits"), f[2].equals("reject")));
+                break;
+            default:
+                throw new MalformedRecordException("unknown journal record " + f[0]);
+        }
+    }
+
+    // -------------------- Export --------------------
+    public void exportEnrollmentsCsv(Path out) throws IOException {
+        exporter().export(out);
+    }
+
+    // Configure filters, columns and output format before calling export
+    public CsvExporter exporter() {
+        return new CsvExporter(repo, metrics);
+    }
+}
@@ -0,0 +1,57 @@
+// DurableFiles.java
+// Crash-safe file replacement: write a temporary sibling, fsync it, rename it over the target in
+// one atomic step, then fsync the directory so the rename itself survives a power loss.
+// Readers see either the old file or the new one, never a partial write.
+
+package enrollmentsystem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+final class DurableFiles {
+    private DurableFiles() {
+    }
+
+    // Replaces file with the given lines; returns the new file's size
+    static long writeLines(Path file, Iterable<String> lines) throws IOException {
+        Path tmp = tempFor(file);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer w = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 64 * 1024);
+            for (String line : lines) {
+                w.write(line);
+                w.write(System.lineSeparator());
+            }
+            w.flush();
+            channel.force(true);
+        }
+        replace(tmp, file);
+        return Files.size(file);
+    }
+
+    static Path tempFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    // Moves an already fsynced temporary file over the target
+    static void replace(Path tmp, Path file) throws IOException {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file);
+    }
+
+    // Makes creates, renames and deletes of file durable. Not every platform can open a
+    // directory for fsync (Windows cannot); there the rename is as durable as the OS makes it.
+    static void syncDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // unsupported here
+        }
+    }
+}
@@ -0,0 +1,56 @@
+// Enrollment.java
+// Represents an enrollment record linking student and course.
+
+package enrollmentsystem;
+
+public class Enrollment {
+    private String studentId;
+    private String courseId;
+
+    public Enrollment(String studentId, String courseId) {
+        this.studentId = studentId;
+        this.courseId = courseId;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    // File record: studentId,courseId
+    public String toRecord() {
+        return String.format("%s,%s", studentId, courseId);
+    }
+
+    public static Enrollment fromRecord(String line) {
+        return fromRecord(new RecordTokenizer(line));
+    }
+
+    public static Enrollment fromRecord(RecordTokenizer tok) {
+        String sid = tok.next(',');
+        String cid = tok.rest();
+        if (sid.isEmpty() || cid.isEmpty()) throw new MalformedRecordException("expected studentId,courseId");
+        return new Enrollment(sid, cid);
+    }
+
+    // Two enrollments are the same if they link the same student and course
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Enrollment)) return false;
+        Enrollment other = (Enrollment) o;
+        return studentId.equals(other.studentId) && courseId.equals(other.courseId);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * studentId.hashCode() + courseId.hashCode();
+    }
+
+    public void displayInfo() {
+        System.out.printf("Student: %s | Course: %s%n", studentId, courseId);
+    }
+}
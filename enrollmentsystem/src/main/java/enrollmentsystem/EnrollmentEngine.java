@@ -0,0 +1,232 @@
+// EnrollmentEngine.java
+// Thread-safe enroll/drop processing. Seats are reserved with a CAS on the course's own counter,
+// so requests for different courses never contend and a full course is rejected without locking.
+// Students turned away from a full course can join its waitlist and are promoted as seats free up.
+// The repository's EnrollmentRules (credit limit, schedule conflicts) are checked on every enrollment.
+// Students are also striped over a few locks (studentLock): a promotion holds the promoted student's,
+// so a caller that holds it (EnrollmentService, while it applies and journals that student's own
+// changes) sees no promotion of theirs in between. Lock order: student, then waitlist.
+
+package enrollmentsystem;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+public class EnrollmentEngine {
+    public enum Result {
+        ENROLLED,
+        DROPPED,
+        STUDENT_NOT_FOUND,
+        COURSE_NOT_FOUND,
+        COURSE_FULL,
+        ALREADY_ENROLLED,
+        NOT_ENROLLED,
+        WAITLISTED,
+        ALREADY_WAITLISTED,
+        CREDIT_LIMIT,
+        SCHEDULE_CONFLICT
+    }
+
+    // Told about waitlist changes while the waitlist is locked, so the order of events
+    // (e.g. journal records) matches the order they took effect
+    public interface WaitlistListener {
+        void joined(String sid, String cid, int priority);
+
+        void promoted(String sid, String cid);
+
+        // Taken off the waitlist at promotion because the rules now refuse the enrollment
+        void left(String sid, String cid);
+    }
+
+    private static final WaitlistListener NO_LISTENER = new WaitlistListener() {
+        @Override
+        public void joined(String sid, String cid, int priority) {
+        }
+
+        @Override
+        public void promoted(String sid, String cid) {
+        }
+
+        @Override
+        public void left(String sid, String cid) {
+        }
+    };
+
+    private final EnrollmentRepository repo;
+    private final Metrics metrics;
+    private volatile WaitlistListener listener = NO_LISTENER;
+    private final Object[] studentLocks = new Object[64];
+
+    public EnrollmentEngine(EnrollmentRepository repo) {
+        this(repo, new Metrics());
+    }
+
+    public EnrollmentEngine(EnrollmentRepository repo, Metrics metrics) {
+        this.repo = repo;
+        this.metrics = metrics;
+        for (int i = 0; i < studentLocks.length; i++) studentLocks[i] = new Object();
+    }
+
+    public Object studentLock(String sid) {
+        return studentLocks[Math.floorMod(sid.hashCode(), studentLocks.length)];
+    }
+
+    public void setWaitlistListener(WaitlistListener listener) {
+        this.listener = listener == null ? NO_LISTENER : listener;
+    }
+
+    // Every outcome, including rejections (full, duplicate, not found), is counted in metrics
+    public Result enroll(String sid, String cid) {
+        Result result = tryEnroll(sid, cid);
+        metrics.countResult(result);
+        return result;
+    }
+
+    public Result drop(String sid, String cid) {
+        Result result = leave(sid, cid);
+        if (result == Result.DROPPED) promote(cid);
+        return result;
+    }
+
+    // Drop without refilling the freed seat; the caller calls promote(cid) next, once it no
+    // longer holds a student lock
+    public Result leave(String sid, String cid) {
+        Result result = tryDrop(sid, cid);
+        metrics.countResult(result);
+        return result;
+    }
+
+    private Result tryEnroll(String sid, String cid) {
+        return reserve(sid, cid, false);
+    }
+
+    // Joins the course's waitlist, or enrolls directly if a seat is free and nobody is waiting
+    public Result joinWaitlist(String sid, String cid, int priority) {
+        Result result = tryJoinWaitlist(sid, cid, priority);
+        metrics.countResult(result);
+        return result;
+    }
+
+    private Result tryJoinWaitlist(String sid, String cid, int priority) {
+        if (repo.findStudent(sid) == null) return Result.STUDENT_NOT_FOUND;
+        Course c = repo.findCourse(cid);
+        if (c == null) return Result.COURSE_NOT_FOUND;
+        if (repo.isEnrolled(sid, cid)) return Result.ALREADY_ENROLLED;
+        // no point queueing for a course the student could not take; checked again at promotion
+        Result refused = repo.checkRules(sid, c);
+        if (refused != null) return refused;
+        Waitlist w = repo.waitlist(cid);
+        synchronized (w) {
+            if (w.size() == 0) {
+                Result r = reserve(sid, cid, true);
+                if (r != Result.COURSE_FULL) return r;
+            }
+            if (!repo.addToWaitlist(sid, cid, priority)) return Result.ALREADY_WAITLISTED;
+            listener.joined(sid, cid, priority);
+            return Result.WAITLISTED;
+        }
+    }
+
+    // Changes the capacity and fills any new seats from the waitlist; false if the course does not exist
+    public boolean updateCapacity(String cid, int capacity) {
+        if (!repo.updateCapacity(cid, capacity)) return false;
+        promote(cid);
+        return true;
+    }
+
+    // Moves students from the head of the waitlist into free seats; returns how many were enrolled.
+    // Holding the waitlist's lock makes each promotion atomic with respect to joins and other
+    // promotions, and plain enrollments are refused while anyone waits, so freed seats cannot be
+    // taken out of turn. Each promotion is one heap poll plus a seat CAS: O(log n) in the queue length.
+    // Each also holds the promoted student's lock, so the caller must not hold any student lock.
+    public int promote(String cid) {
+        Waitlist w = repo.findWaitlist(cid);
+        if (w == null) return 0;
+        int promoted = 0;
+        Waitlist.Entry head;
+        while ((head = w.peek()) != null) {
+            synchronized (studentLock(head.getStudentId())) {
+                synchronized (w) {
+                    if (w.peek() != head) continue; // the queue changed before we held it; look again
+                    long start = System.nanoTime();
+                    Result r = reserve(head.getStudentId(), cid, true);
+                    if (r == Result.COURSE_FULL || r == Result.COURSE_NOT_FOUND) break;
+                    // enrolled, or no longer eligible (deleted, already enrolled, rules)
+                    boolean waiting = repo.removeFromWaitlist(head.getStudentId(), cid);
+                    if (r == Result.ENROLLED && !waiting) {
+                        // taken off the waitlist meanwhile by a path that does not lock it (student deleted):
+                        // they no longer want the seat
+                        repo.removeEnrollment(head.getStudentId(), cid);
+                        continue;
+                    }
+                    if (r == Result.ENROLLED) {
+                        promoted++;
+                        listener.promoted(head.getStudentId(), cid);
+                        metrics.record(Metrics.Op.PROMOTE, start);
+                    } else if (r == Result.CREDIT_LIMIT || r == Result.SCHEDULE_CONFLICT) {
+                        listener.left(head.getStudentId(), cid);
+                    }
+                }
+            }
+        }
+        return promoted;
+    }
+
+    // Takes a seat and records the enrollment. Unless called on behalf of the waitlist,
+    // a course with anyone waiting counts as full: freed seats belong to the head of the queue.
+    private Result reserve(String sid, String cid, boolean fromWaitlist) {
+        Student s = repo.findStudent(sid);
+        if (s == null) return Result.STUDENT_NOT_FOUND;
+        Course c = repo.findCourse(cid);
+        AtomicInteger seats = repo.seatCounter(cid);
+        if (c == null || seats == null) return Result.COURSE_NOT_FOUND;
+        if (repo.isEnrolled(sid, cid)) return Result.ALREADY_ENROLLED;
+        if (!fromWaitlist && repo.waitlistSize(cid) > 0) return Result.COURSE_FULL;
+        // a couple of bit and integer operations on the student's running load
+        Result refused = repo.checkRules(sid, c);
+        if (refused != null) return refused;
+
+        // reserve a seat: never moves the counter past capacity
+        while (true) {
+            int taken = seats.get();
+            if (taken >= c.getCapacity()) return Result.COURSE_FULL;
+            if (seats.compareAndSet(taken, taken + 1)) break;
+        }
+        // one change as far as snapshots go, so none sees an enrollment taken back below
+        Lock gate = repo.gate();
+        try {
+            Result linked = repo.link(new Enrollment(sid, cid), true);
+            if (linked != Result.ENROLLED) {
+                seats.decrementAndGet(); // lost a race with the same request, or a concurrent enrollment used up the load
+                repo.seatsChanged(cid);
+                return linked;
+            }
+            // the student or course may have been deleted while we were enrolling
+            if (!repo.isCurrent(sid, s) || repo.findCourse(cid) != c) {
+                if (repo.unlink(sid, cid)) seats.decrementAndGet();
+                repo.seatsChanged(cid);
+                return !repo.isCurrent(sid, s) ? Result.STUDENT_NOT_FOUND : Result.COURSE_NOT_FOUND;
+            }
+        } finally {
+            gate.unlock();
+        }
+        repo.seatsChanged(cid);
+        return Result.ENROLLED;
+    }
+
+    // Dropping a course frees a seat for the waitlist (see drop); dropping a course you are only
+    // waiting for just leaves its waitlist
+    private Result tryDrop(String sid, String cid) {
+        if (repo.findStudent(sid) == null) return Result.STUDENT_NOT_FOUND;
+        if (!repo.removeEnrollment(sid, cid)) {
+            Waitlist w = repo.findWaitlist(cid);
+            if (w == null) return Result.NOT_ENROLLED;
+            // under the waitlist's lock, so a promotion cannot enroll them between the two checks
+            synchronized (w) {
+                if (repo.removeFromWaitlist(sid, cid)) return Result.DROPPED;
+                if (!repo.removeEnrollment(sid, cid)) return Result.NOT_ENROLLED; // promoted since the first check
+            }
+        }
+        return Result.DROPPED;
+    }
+}
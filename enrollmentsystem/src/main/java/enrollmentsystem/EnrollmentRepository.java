@@ -0,0 +1,816 @@
+// EnrollmentRepository.java
+// Thread-safe in-memory store with hash indexes so lookups, capacity and duplicate checks are O(1).
+// Enrollments are kept only as primitive ints: student and course IDs are interned to dense ints,
+// each course holds an IntSet of student ints and each student an IntSet of course ints.
+// Enrollment objects are built on demand when listing. Full courses may also have a Waitlist.
+// Secondary indexes answer searches by name (NameIndex) and by credits or open seats (RangeIndex);
+// names must be changed through rename* so the indexes see them.
+// Each student also carries their credit total and occupied meeting slots, kept current as they
+// enroll and drop, so the EnrollmentRules checks never walk the student's courses.
+// EnrollmentStats keeps the global totals and the course demand ranking current from the same hooks.
+// With a StudentFile attached (lazy loading), student records are read from students.txt when first
+// needed; studentsById then holds only students added or renamed since the last save.
+// snapshot() gives a consistent read of everything as of one instant (see EnrollmentSnapshot).
+// Every change runs under a gate, the read lock of one of a few striped read-write locks, so a
+// snapshot (which takes all the write locks, for a moment) never lands in the middle of one; while
+// snapshots are open, each change first keeps in them what it is about to overwrite.
+
+package enrollmentsystem;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+
+public class EnrollmentRepository implements EnrollmentView {
+    private final Map<String, Student> studentsById = new ConcurrentHashMap<>();
+    private volatile StudentFile studentFile; // null when every student is in studentsById
+    private final Map<String, Course> coursesById = new ConcurrentHashMap<>();
+
+    private final IdDictionary studentIds = new IdDictionary();
+    private final IdDictionary courseIds = new IdDictionary();
+
+    // Indexed by interned int. Slots are filled when an ID is interned and never replaced,
+    // so readers only need the volatile array reference.
+    private volatile IntSet[] studentsByCourse = new IntSet[16];
+    private volatile IntSet[] coursesByStudent = new IntSet[16];
+    // Per-course seat counters; EnrollmentEngine reserves seats on these with CAS
+    private volatile AtomicInteger[] seatCounts = new AtomicInteger[16];
+    // Per-student credit total and slot mask, guarded by the student's coursesByStudent set
+    private volatile StudentLoad[] loads = new StudentLoad[16];
+    private volatile EnrollmentRules rules = EnrollmentRules.DEFAULT;
+
+    private final AtomicInteger enrollmentCount = new AtomicInteger();
+
+    private final Map<String, Waitlist> waitlists = new ConcurrentHashMap<>();
+    // Request order across all waitlists; ties on priority go to the earlier request
+    private final AtomicLong waitlistSeq = new AtomicLong();
+
+    private final NameIndex studentNames = new NameIndex();
+    private final NameIndex courseNames = new NameIndex();
+    private final RangeIndex courseCredits = new RangeIndex();
+    private final RangeIndex openSeats = new RangeIndex(); // capacity minus enrolled
+    private final EnrollmentStats stats = new EnrollmentStats(this);
+
+    // Picked by thread, so changes from different threads rarely share a lock
+    private final ReadWriteLock[] gates = new ReadWriteLock[16];
+    private volatile EnrollmentSnapshot[] snapshots = new EnrollmentSnapshot[0]; // open ones
+
+    public EnrollmentRepository() {
+        for (int i = 0; i < gates.length; i++) gates[i] = new ReentrantReadWriteLock();
+    }
+
+    // -------------------- Students --------------------
+    public Student findStudent(String sid) {
+        Student s = studentsById.get(sid);
+        StudentFile file = studentFile;
+        if (s != null || file == null) return s;
+        s = file.find(sid);
+        // the engine links enrollments by interned ID
+        if (s != null && studentIds.lookup(sid) < 0) internStudent(sid);
+        return s;
+    }
+
+    // True while sid still names the student s was found as (not deleted, or deleted and re-added).
+    // A lazily loaded record may be read again as a new object once it leaves the cache, so there
+    // an equal name also counts.
+    public boolean isCurrent(String sid, Student s) {
+        Student now = findStudent(sid);
+        return now == s || (now != null && studentFile != null && now.getName().equals(s.getName()));
+    }
+
+    public boolean addStudent(Student s) {
+        Lock gate = gate();
+        try {
+            StudentFile file = studentFile;
+            if (file != null && file.find(s.getStudentId()) != null) return false;
+            keepStudent(s.getStudentId());
+            if (studentsById.putIfAbsent(s.getStudentId(), s) != null) return false;
+            if (file != null) file.added(s.getStudentId());
+            studentNames.put(internStudent(s.getStudentId()), s.getName());
+            return true;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // Changes the name and reindexes it; false if the student does not exist
+    public boolean renameStudent(String sid, String name) {
+        Lock gate = gate();
+        try {
+            Student s = findStudent(sid);
+            if (s == null) return false;
+            synchronized (studentNames) {
+                keepStudent(sid);
+                s.setName(name);
+                if (studentFile != null) studentsById.put(sid, s); // held until saved
+                studentNames.put(studentIds.lookup(sid), name);
+            }
+            return true;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // Removes the student and all of their enrollments; returns the removed student or null
+    public Student removeStudent(String sid) {
+        Lock gate = gate();
+        try {
+            keepStudent(sid);
+            Student s = studentsById.remove(sid);
+            StudentFile file = studentFile;
+            if (file != null) {
+                if (s == null) s = file.find(sid);
+                if (s == null || !file.removed(sid)) return null;
+            }
+            if (s == null) return null;
+            int si = studentIds.lookup(sid);
+            if (si >= 0) {
+                for (int ci : coursesByStudent[si].toArray()) removeEnrollment(sid, courseIds.key(ci));
+                studentNames.remove(si);
+            }
+            waitlists.forEach((cid, w) -> {
+                if (w.remove(sid)) seatsChanged(cid);
+            });
+            return s;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // With lazy loading, a view that streams students.txt and is read again by each iteration
+    public Collection<Student> getStudents() {
+        StudentFile file = studentFile;
+        if (file == null) return Collections.unmodifiableCollection(studentsById.values());
+        return new AbstractCollection<Student>() {
+            @Override
+            public Iterator<Student> iterator() {
+                return file.iterator(studentsById);
+            }
+
+            @Override
+            public int size() {
+                return file.count();
+            }
+        };
+    }
+
+    public int studentCount() {
+        StudentFile file = studentFile;
+        return file == null ? studentsById.size() : file.count();
+    }
+
+    // -------------------- Lazy loading --------------------
+    // Reads student records from file on demand from now on; set on an empty repository, before
+    // anything else is loaded
+    void attach(StudentFile file) {
+        studentFile = file;
+    }
+
+    StudentFile studentFile() {
+        return studentFile;
+    }
+
+    // Students added or renamed since the last save, which the file does not have yet
+    Map<String, Student> heldStudents() {
+        return Collections.unmodifiableMap(studentsById);
+    }
+
+    // Called once s has been saved with this name: unless it was renamed meanwhile, the file has it
+    // now, so it moves to the file's cache (keeping the same object)
+    void release(Student s, String savedName) {
+        synchronized (studentNames) {
+            if (s.getName().equals(savedName) && studentsById.remove(s.getStudentId(), s)) studentFile.cache(s);
+        }
+    }
+
+    // -------------------- Courses --------------------
+    public Course findCourse(String cid) {
+        return coursesById.get(cid);
+    }
+
+    public boolean addCourse(Course c) {
+        Lock gate = gate();
+        try {
+            keepCourse(c.getCourseId());
+            // capacity changes lock the course, so the seat total never sees a half-added course
+            synchronized (c) {
+                if (coursesById.putIfAbsent(c.getCourseId(), c) != null) return false;
+                stats.seatsAdded(c.getCapacity());
+            }
+            int ci = internCourse(c.getCourseId());
+            courseNames.put(ci, c.getCourseName());
+            courseCredits.update(ci, c::getCredits);
+            seatsChanged(c.getCourseId());
+            return true;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    public boolean renameCourse(String cid, String name) {
+        Lock gate = gate();
+        try {
+            Course c = coursesById.get(cid);
+            if (c == null) return false;
+            synchronized (courseNames) {
+                keepCourse(cid);
+                c.setCourseName(name);
+                courseNames.put(courseIds.lookup(cid), name);
+            }
+            return true;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // Sets the capacity and reindexes the course's open seats; false if it does not exist
+    public boolean updateCapacity(String cid, int capacity) {
+        Lock gate = gate();
+        try {
+            Course c = coursesById.get(cid);
+            if (c == null) return false;
+            synchronized (c) {
+                if (coursesById.get(cid) != c) return false; // deleted meanwhile
+                keepCourse(cid);
+                stats.seatsAdded(capacity - c.getCapacity());
+                c.setCapacity(capacity);
+            }
+            seatsChanged(cid);
+            return true;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // Changes the meeting times and recomputes the slots of everyone enrolled; false if the course
+    // does not exist. Existing enrollments that now overlap are kept; the rules apply to new ones.
+    public boolean updateSchedule(String cid, long slots) {
+        Lock gate = gate();
+        try {
+            Course c = coursesById.get(cid);
+            int ci = courseIds.lookup(cid);
+            if (c == null || ci < 0) return false;
+            int[] members;
+            // link() reads the slots under this lock, so every enrollment either saw the new slots or is in members
+            synchronized (studentsByCourse[ci]) {
+                keepCourse(cid);
+                c.setSlots(slots);
+                members = studentsByCourse[ci].toArray();
+            }
+            for (int si : members) {
+                synchronized (coursesByStudent[si]) {
+                    recount(si);
+                }
+            }
+            return true;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // Removes the course and all of its enrollments: O(enrolled students), not O(all students)
+    public Course removeCourse(String cid) {
+        Lock gate = gate();
+        try {
+            keepCourse(cid);
+            Course c = coursesById.remove(cid);
+            if (c == null) return null;
+            synchronized (c) {
+                stats.seatsAdded(-c.getCapacity());
+            }
+            int ci = courseIds.lookup(cid);
+            if (ci >= 0) {
+                for (int si : studentsByCourse[ci].toArray()) removeEnrollment(studentIds.key(si), cid);
+                courseNames.remove(ci);
+                courseCredits.remove(ci);
+                openSeats.remove(ci);
+            }
+            Waitlist w = waitlists.remove(cid);
+            if (w != null) w.detach();
+            seatsChanged(cid);
+            return c;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    public Collection<Course> getCourses() {
+        return Collections.unmodifiableCollection(coursesById.values());
+    }
+
+    public int courseCount() {
+        return coursesById.size();
+    }
+
+    // -------------------- Enrollments --------------------
+    public boolean isEnrolled(String sid, String cid) {
+        int si = studentIds.lookup(sid);
+        int ci = courseIds.lookup(cid);
+        return si >= 0 && ci >= 0 && coursesByStudent[si].contains(ci);
+    }
+
+    public int enrolledCount(String cid) {
+        int ci = courseIds.lookup(cid);
+        return ci < 0 ? 0 : seatCounts[ci].get();
+    }
+
+    public boolean isFull(Course c) {
+        return enrolledCount(c.getCourseId()) >= c.getCapacity();
+    }
+
+    // IDs of the students in a course (a copy; empty if the course is unknown)
+    public List<String> courseMembers(String cid) {
+        int ci = courseIds.lookup(cid);
+        return ci < 0 ? Collections.emptyList() : keys(studentIds, studentsByCourse[ci].toArray());
+    }
+
+    // IDs of the courses a student is enrolled in (a copy; empty if the student is unknown)
+    public List<String> studentCourses(String sid) {
+        int si = studentIds.lookup(sid);
+        return si < 0 ? Collections.emptyList() : keys(courseIds, coursesByStudent[si].toArray());
+    }
+
+    public int studentCourseCount(String sid) {
+        int si = studentIds.lookup(sid);
+        return si < 0 ? 0 : coursesByStudent[si].size();
+    }
+
+    // Credits of the courses a student is enrolled in
+    public int studentCredits(String sid) {
+        int si = studentIds.lookup(sid);
+        if (si < 0) return 0;
+        synchronized (coursesByStudent[si]) {
+            return loads[si].credits;
+        }
+    }
+
+    // Meeting slots the student's courses occupy (see Schedule)
+    public long studentSlots(String sid) {
+        int si = studentIds.lookup(sid);
+        if (si < 0) return 0;
+        synchronized (coursesByStudent[si]) {
+            return loads[si].slots;
+        }
+    }
+
+    // -------------------- Rules --------------------
+    public EnrollmentRules getRules() {
+        return rules;
+    }
+
+    public void setRules(EnrollmentRules rules) {
+        this.rules = rules;
+    }
+
+    // Why the current rules refuse this enrollment (CREDIT_LIMIT, SCHEDULE_CONFLICT), or null.
+    // A quick early answer for the engine; link() repeats the check atomically with the enrollment.
+    public EnrollmentEngine.Result checkRules(String sid, Course c) {
+        int si = studentIds.lookup(sid);
+        if (si < 0) return null;
+        synchronized (coursesByStudent[si]) {
+            StudentLoad load = loads[si];
+            return rules.check(load.credits, load.slots, c.getCredits(), c.getSlots());
+        }
+    }
+
+    private static List<String> keys(IdDictionary ids, int[] members) {
+        List<String> list = new ArrayList<>(members.length);
+        for (int m : members) list.add(ids.key(m));
+        return list;
+    }
+
+    // Records the enrollment and takes a seat without a capacity check (loading and journal replay)
+    public boolean addEnrollment(Enrollment e) {
+        Lock gate = gate();
+        try {
+            internStudent(e.getStudentId());
+            internCourse(e.getCourseId());
+            // a replayed promotion also takes the student off the waitlist, even when the data files
+            // already held the enrollment
+            removeFromWaitlist(e.getStudentId(), e.getCourseId());
+            if (link(e, false) != EnrollmentEngine.Result.ENROLLED) return false;
+            seatCounter(e.getCourseId()).incrementAndGet();
+            seatsChanged(e.getCourseId());
+            return true;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // Removes the enrollment and frees its seat; returns false if it did not exist
+    public boolean removeEnrollment(String sid, String cid) {
+        Lock gate = gate();
+        try {
+            if (!unlink(sid, cid)) return false;
+            seatCounter(cid).decrementAndGet();
+            seatsChanged(cid);
+            return true;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // Live view grouped by course; Enrollment objects are created as the iterator reaches them
+    public Collection<Enrollment> getEnrollments() {
+        return new AbstractCollection<Enrollment>() {
+            @Override
+            public Iterator<Enrollment> iterator() {
+                return new EnrollmentIterator();
+            }
+
+            @Override
+            public int size() {
+                return enrollmentCount();
+            }
+        };
+    }
+
+    public int enrollmentCount() {
+        return enrollmentCount.get();
+    }
+
+    // -------------------- Statistics --------------------
+    // Global counters, read in O(1)
+    public EnrollmentStats.Totals totals() {
+        return stats.totals();
+    }
+
+    // Course IDs by demand, (enrolled + waiting) per seat, highest first: full courses with the
+    // longest waitlists lead. The first call builds the ranking.
+    public List<String> busiestCourses(int n) {
+        return keys(courseIds, stats.busiest(n, sink -> coursesById.forEach((cid, c) -> {
+            int ci = courseIds.lookup(cid);
+            sink.accept(ci, () -> EnrollmentStats.demandOf(seatCounts[ci].get(), waitlistSize(cid), c.getCapacity()));
+        })));
+    }
+
+    // -------------------- Search --------------------
+    // Student IDs by name: "text" matches anywhere in the name, "text*" the start of the name or of
+    // any word in it; case-insensitive. The first search builds the index.
+    public List<String> searchStudents(String pattern) {
+        if (!studentNames.isBuilt()) {
+            // lazily loaded students are interned first, outside the index's lock
+            if (studentFile != null) {
+                for (Student s : getStudents()) {
+                    if (studentIds.lookup(s.getStudentId()) < 0) internStudent(s.getStudentId());
+                }
+            }
+            studentNames.build(sink -> {
+                for (Student s : getStudents()) sink.accept(s.getName(), studentIds.lookup(s.getStudentId()));
+            });
+        }
+        return keys(studentIds, search(studentNames, pattern));
+    }
+
+    public List<String> searchCourses(String pattern) {
+        if (!courseNames.isBuilt()) {
+            courseNames.build(sink -> coursesById.forEach((cid, c) -> sink.accept(c.getCourseName(), courseIds.lookup(cid))));
+        }
+        return keys(courseIds, search(courseNames, pattern));
+    }
+
+    private static int[] search(NameIndex index, String pattern) {
+        return pattern.endsWith("*") ? index.prefix(pattern.substring(0, pattern.length() - 1)) : index.contains(pattern);
+    }
+
+    // Course IDs with min <= credits <= max, fewest credits first
+    public List<String> coursesByCredits(int min, int max) {
+        if (!courseCredits.isBuilt()) {
+            courseCredits.build(sink -> coursesById.forEach((cid, c) -> sink.accept(courseIds.lookup(cid), c::getCredits)));
+        }
+        return keys(courseIds, courseCredits.range(min, max));
+    }
+
+    // Course IDs with min <= (capacity - enrolled) <= max, fullest first
+    public List<String> coursesByOpenSeats(int min, int max) {
+        if (!openSeats.isBuilt()) {
+            openSeats.build(sink -> coursesById.forEach((cid, c) -> {
+                int ci = courseIds.lookup(cid);
+                sink.accept(ci, openSeatsOf(c, ci));
+            }));
+        }
+        return keys(courseIds, openSeats.range(min, max));
+    }
+
+    // Keeps the open-seats index and the statistics current; called after every change to a
+    // course's seat count, capacity or waitlist
+    void seatsChanged(String cid) {
+        int ci = courseIds.lookup(cid);
+        if (ci < 0) return;
+        stats.courseChanged(ci, cid);
+        if (!openSeats.isTracking()) return;
+        Course c = coursesById.get(cid);
+        if (c == null) {
+            openSeats.remove(ci);
+            return;
+        }
+        openSeats.update(ci, openSeatsOf(c, ci));
+    }
+
+    private IntSupplier openSeatsOf(Course c, int ci) {
+        AtomicInteger seats = seatCounts[ci];
+        return () -> c.getCapacity() - seats.get();
+    }
+
+    // -------------------- Waitlists --------------------
+    public Waitlist findWaitlist(String cid) {
+        return waitlists.get(cid);
+    }
+
+    public int waitlistSize(String cid) {
+        Waitlist w = waitlists.get(cid);
+        return w == null ? 0 : w.size();
+    }
+
+    // Queues the student behind everyone already waiting with the same or higher priority.
+    // Returns false if they are already on this waitlist.
+    public boolean addToWaitlist(String sid, String cid, int priority) {
+        if (!waitlist(cid).add(sid, priority, waitlistSeq.getAndIncrement())) return false;
+        seatsChanged(cid);
+        return true;
+    }
+
+    public boolean removeFromWaitlist(String sid, String cid) {
+        Waitlist w = waitlists.get(cid);
+        if (w == null || !w.remove(sid)) return false;
+        seatsChanged(cid);
+        return true;
+    }
+
+    // Creates the course's (empty) waitlist if needed; the engine locks it while promoting
+    Waitlist waitlist(String cid) {
+        return waitlists.computeIfAbsent(cid, k -> new Waitlist(stats.waitingCounter()));
+    }
+
+    // Course ID -> waitlist, for saving
+    public Map<String, Waitlist> getWaitlists() {
+        return Collections.unmodifiableMap(waitlists);
+    }
+
+    // Seat counter for a course, or null if the course ID was never seen
+    AtomicInteger seatCounter(String cid) {
+        int ci = courseIds.lookup(cid);
+        return ci < 0 ? null : seatCounts[ci];
+    }
+
+    // Adds the enrollment to both indexes and to the student's load, without touching seat counters.
+    // Everything happens under the student's set lock, so concurrent duplicates are rejected and
+    // two enrollments cannot both claim the last credits or the same slot. With checkRules set,
+    // returns CREDIT_LIMIT or SCHEDULE_CONFLICT instead of linking when the rules refuse it.
+    EnrollmentEngine.Result link(Enrollment e, boolean checkRules) {
+        int si = studentIds.lookup(e.getStudentId());
+        int ci = courseIds.lookup(e.getCourseId());
+        if (si < 0) return EnrollmentEngine.Result.STUDENT_NOT_FOUND;
+        if (ci < 0) return EnrollmentEngine.Result.COURSE_NOT_FOUND;
+        Course c = coursesById.get(e.getCourseId()); // null while replaying an enrollment for a deleted course
+        IntSet courses = coursesByStudent[si];
+        IntSet members = studentsByCourse[ci];
+        Lock gate = gate();
+        try {
+            synchronized (courses) {
+                if (courses.contains(ci)) return EnrollmentEngine.Result.ALREADY_ENROLLED;
+                StudentLoad load = loads[si];
+                int credits = c == null ? 0 : c.getCredits();
+                synchronized (members) {
+                    long slots = c == null ? 0 : c.getSlots();
+                    if (checkRules) {
+                        EnrollmentEngine.Result refused = rules.check(load.credits, load.slots, credits, slots);
+                        if (refused != null) return refused;
+                    }
+                    keepMembers(ci);
+                    members.add(si);
+                    load.slots |= slots;
+                }
+                keepCourses(si);
+                courses.add(ci);
+                load.credits += credits;
+                stats.creditsAdded(credits);
+            }
+            enrollmentCount.incrementAndGet();
+            return EnrollmentEngine.Result.ENROLLED;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    boolean unlink(String sid, String cid) {
+        int si = studentIds.lookup(sid);
+        int ci = courseIds.lookup(cid);
+        if (si < 0 || ci < 0) return false;
+        IntSet members = studentsByCourse[ci];
+        Lock gate = gate();
+        try {
+            synchronized (coursesByStudent[si]) {
+                if (!coursesByStudent[si].contains(ci)) return false;
+                keepCourses(si);
+                coursesByStudent[si].remove(ci);
+                synchronized (members) {
+                    keepMembers(ci);
+                    members.remove(si);
+                }
+                recount(si);
+            }
+            enrollmentCount.decrementAndGet();
+            return true;
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // Rebuilds a student's load from the courses they still hold (a handful). Used on drops rather
+    // than subtracting, so overlapping courses (allowed by earlier rules) and deleted or
+    // rescheduled courses need no extra bookkeeping. Caller holds the student's set lock.
+    private void recount(int si) {
+        int credits = 0;
+        long slots = 0;
+        for (int ci : coursesByStudent[si].toArray()) {
+            Course c = coursesById.get(courseIds.key(ci));
+            if (c == null) continue;
+            credits += c.getCredits();
+            slots |= c.getSlots();
+        }
+        stats.creditsAdded(credits - loads[si].credits);
+        loads[si].credits = credits;
+        loads[si].slots = slots;
+    }
+
+    // -------------------- Snapshots --------------------
+    // A consistent view of the data as of now, for reads that take a while; close it when done.
+    // Taking one waits for changes in progress to finish and copies nothing.
+    public EnrollmentSnapshot snapshot() {
+        for (ReadWriteLock g : gates) g.writeLock().lock();
+        try {
+            EnrollmentSnapshot s = new EnrollmentSnapshot(this, studentIds.size(), courseIds.size(), enrollmentCount.get());
+            synchronized (gates) {
+                EnrollmentSnapshot[] open = Arrays.copyOf(snapshots, snapshots.length + 1);
+                open[open.length - 1] = s;
+                snapshots = open;
+            }
+            return s;
+        } finally {
+            for (ReadWriteLock g : gates) g.writeLock().unlock();
+        }
+    }
+
+    void forget(EnrollmentSnapshot s) {
+        synchronized (gates) {
+            List<EnrollmentSnapshot> open = new ArrayList<>(Arrays.asList(snapshots));
+            open.remove(s);
+            snapshots = open.toArray(new EnrollmentSnapshot[0]);
+        }
+    }
+
+    // Locked by every change, so snapshot() sees none half done; reentrant, for changes made of changes
+    Lock gate() {
+        int h = System.identityHashCode(Thread.currentThread());
+        Lock gate = gates[(h ^ (h >>> 16)) & (gates.length - 1)].readLock();
+        gate.lock();
+        return gate;
+    }
+
+    // Called before each change, with the gate held; a no-op unless a snapshot is open
+    private void keepStudent(String sid) {
+        for (EnrollmentSnapshot s : snapshots) s.keepStudent(sid);
+    }
+
+    private void keepCourse(String cid) {
+        for (EnrollmentSnapshot s : snapshots) s.keepCourse(cid);
+    }
+
+    // Also with the set's lock held
+    private void keepMembers(int ci) {
+        for (EnrollmentSnapshot s : snapshots) s.keepMembers(ci, studentsByCourse[ci]);
+    }
+
+    private void keepCourses(int si) {
+        for (EnrollmentSnapshot s : snapshots) s.keepCourses(si, coursesByStudent[si]);
+    }
+
+    // Interned IDs and sets, for EnrollmentSnapshot
+    String studentKey(int si) {
+        return studentIds.key(si);
+    }
+
+    String courseKey(int ci) {
+        return courseIds.key(ci);
+    }
+
+    int studentIndex(String sid) {
+        return studentIds.lookup(sid);
+    }
+
+    int courseIndex(String cid) {
+        return courseIds.lookup(cid);
+    }
+
+    IntSet membersOf(int ci) {
+        return studentsByCourse[ci];
+    }
+
+    IntSet coursesOf(int si) {
+        return coursesByStudent[si];
+    }
+
+    // -------------------- Interning --------------------
+    // Interned IDs are never released: a deleted ID keeps its (emptied) slot and is reused if re-added.
+    // Known IDs are answered without the lock, so parallel shard loads only meet on new ones
+    private int internStudent(String sid) {
+        int si = studentIds.lookup(sid);
+        return si >= 0 ? si : internNewStudent(sid);
+    }
+
+    private synchronized int internNewStudent(String sid) {
+        int si = studentIds.lookup(sid);
+        if (si >= 0) return si;
+        si = studentIds.size();
+        IntSet[] sets = coursesByStudent;
+        StudentLoad[] load = loads;
+        if (si == sets.length) {
+            sets = Arrays.copyOf(sets, si * 2);
+            load = Arrays.copyOf(load, si * 2);
+        }
+        sets[si] = new IntSet(4);
+        load[si] = new StudentLoad();
+        loads = load;
+        coursesByStudent = sets; // publish the slot before the id becomes visible
+        return studentIds.intern(sid);
+    }
+
+    private int internCourse(String cid) {
+        int ci = courseIds.lookup(cid);
+        return ci >= 0 ? ci : internNewCourse(cid);
+    }
+
+    private synchronized int internNewCourse(String cid) {
+        int ci = courseIds.lookup(cid);
+        if (ci >= 0) return ci;
+        ci = courseIds.size();
+        IntSet[] sets = studentsByCourse;
+        AtomicInteger[] seats = seatCounts;
+        if (ci == sets.length) {
+            sets = Arrays.copyOf(sets, ci * 2);
+            seats = Arrays.copyOf(seats, ci * 2);
+        }
+        sets[ci] = new IntSet(16);
+        seats[ci] = new AtomicInteger();
+        studentsByCourse = sets;
+        seatCounts = seats;
+        return courseIds.intern(cid);
+    }
+
+    // -------------------- Bulk load --------------------
+    public synchronized void clear() {
+        studentsById.clear();
+        studentFile = null;
+        coursesById.clear();
+        studentIds.clear();
+        courseIds.clear();
+        studentsByCourse = new IntSet[16];
+        coursesByStudent = new IntSet[16];
+        seatCounts = new AtomicInteger[16];
+        loads = new StudentLoad[16];
+        rules = EnrollmentRules.DEFAULT;
+        enrollmentCount.set(0);
+        waitlists.clear();
+        waitlistSeq.set(0);
+        studentNames.clear();
+        courseNames.clear();
+        courseCredits.clear();
+        openSeats.clear();
+        stats.clear();
+    }
+
+    private static final class StudentLoad {
+        int credits;
+        long slots;
+    }
+
+    // Walks each course's members from a per-course copy, so concurrent changes never break iteration
+    private class EnrollmentIterator implements Iterator<Enrollment> {
+        private final int courses = courseIds.size();
+        private int course = -1;
+        private int[] members = new int[0];
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == members.length) {
+                if (++course >= courses) return false;
+                members = studentsByCourse[course].toArray();
+                next = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public Enrollment next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return new Enrollment(studentIds.key(members[next++]), courseIds.key(course));
+        }
+    }
+}
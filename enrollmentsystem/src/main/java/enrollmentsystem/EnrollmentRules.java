@@ -0,0 +1,72 @@
+// EnrollmentRules.java
+// Limits checked when a student enrolls: a maximum credit load per student (0 = no limit) and
+// whether courses with overlapping meeting times are refused. The repository keeps each student's
+// credit total and occupied slots up to date, so a check is an AND and an addition.
+// Immutable: changing the rules swaps in a new instance.
+
+package enrollmentsystem;
+
+public final class EnrollmentRules {
+    public static final EnrollmentRules DEFAULT = new EnrollmentRules(0, true);
+
+    // Stored as the first line of courses.txt
+    private static final String RECORD_PREFIX = "#rules";
+
+    private final int maxCredits;
+    private final boolean rejectConflicts;
+
+    public EnrollmentRules(int maxCredits, boolean rejectConflicts) {
+        this.maxCredits = Math.max(0, maxCredits);
+        this.rejectConflicts = rejectConflicts;
+    }
+
+    public int getMaxCredits() {
+        return maxCredits;
+    }
+
+    public boolean rejectsConflicts() {
+        return rejectConflicts;
+    }
+
+    // Why a course with these credits and slots does not fit the student's current load, or null
+    public EnrollmentEngine.Result check(int heldCredits, long heldSlots, int credits, long slots) {
+        if (rejectConflicts && (heldSlots & slots) != 0) return EnrollmentEngine.Result.SCHEDULE_CONFLICT;
+        if (maxCredits > 0 && heldCredits + credits > maxCredits) return EnrollmentEngine.Result.CREDIT_LIMIT;
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return (maxCredits == 0 ? "no credit limit" : "at most " + maxCredits + " credits")
+                + ", schedule conflicts " + (rejectConflicts ? "refused" : "allowed");
+    }
+
+    // File record format: #rules,maxCredits=18,conflicts=reject|allow
+    public String toRecord() {
+        return RECORD_PREFIX + ",maxCredits=" + maxCredits + ",conflicts=" + (rejectConflicts ? "reject" : "allow");
+    }
+
+    public static boolean isRecord(CharSequence line) {
+        return line.length() > 0 && line.charAt(0) == '#' && line.toString().startsWith(RECORD_PREFIX);
+    }
+
+    // Unknown keys are ignored; missing ones keep their defaults
+    public static EnrollmentRules fromRecord(RecordTokenizer tok) {
+        tok.next(','); // #rules
+        int maxCredits = DEFAULT.maxCredits;
+        boolean rejectConflicts = DEFAULT.rejectConflicts;
+        while (tok.hasMore()) {
+            String option = tok.next(',');
+            int eq = option.indexOf('=');
+            String key = eq < 0 ? option : option.substring(0, eq);
+            String value = eq < 0 ? "" : option.substring(eq + 1);
+            if (key.equals("maxCredits")) {
+                maxCredits = new RecordTokenizer(value).nextInt(',', "maxCredits");
+            } else if (key.equals("conflicts")) {
+                if (!value.equals("reject") && !value.equals("allow")) throw new MalformedRecordException("conflicts must be reject or allow");
+                rejectConflicts = value.equals("reject");
+            }
+        }
+        return new EnrollmentRules(maxCredits, rejectConflicts);
+    }
+}
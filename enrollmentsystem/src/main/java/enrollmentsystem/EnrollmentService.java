@@ -0,0 +1,317 @@
+// EnrollmentService.java
+// The operations behind the console menu and the HTTP API: each applies one change to the
+// repository and journals it. Safe to call from many threads.
+// Each change is applied and journaled under one lock, so journal records are in the order the
+// changes took effect: a student's own changes under the engine's lock for that student (which
+// promotions hold too), course changes under a per-course stripe, rules under a lock of their own.
+// Promotions run after the student's lock is released, since they take the promoted student's.
+// New IDs, names and numbers are checked before anything changes; a bad one throws
+// IllegalArgumentException.
+// Journal records are committed to disk in the background (see DataStore); call sync() or save()
+// to wait for them. With a flush interval of 0 a failed write is passed on as an IOException,
+// and the change stays applied in memory.
+
+package enrollmentsystem;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+public class EnrollmentService {
+    private final EnrollmentRepository repo;
+    private final EnrollmentEngine engine;
+    private final DataStore store;
+    private final Metrics metrics;
+    private volatile BiConsumer<String, String> promotionNotice = (sid, cid) -> { };
+    private final Object[] courseStripes = new Object[64];
+    private final Object rulesLock = new Object();
+
+    public EnrollmentService(EnrollmentRepository repo, EnrollmentEngine engine, DataStore store, Metrics metrics) {
+        this.repo = repo;
+        this.engine = engine;
+        this.store = store;
+        this.metrics = metrics;
+        engine.setWaitlistListener(new WaitlistJournal());
+        for (int i = 0; i < courseStripes.length; i++) courseStripes[i] = new Object();
+    }
+
+    private Object stripe(String sid) {
+        return engine.studentLock(sid);
+    }
+
+    private Object courseStripe(String cid) {
+        return courseStripes[Math.floorMod(cid.hashCode(), courseStripes.length)];
+    }
+
+    // Called with (studentId, courseId) after a waitlisted student is promoted and journaled
+    public void setPromotionNotice(BiConsumer<String, String> notice) {
+        this.promotionNotice = notice;
+    }
+
+    public EnrollmentRepository repository() {
+        return repo;
+    }
+
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    public DataStore store() {
+        return store;
+    }
+
+    // -------------------- Students --------------------
+    // False if the ID is taken
+    public boolean addStudent(String sid, String name) throws IOException {
+        checkId("student", sid);
+        checkName("student", name);
+        long start = System.nanoTime();
+        try {
+            synchronized (stripe(sid)) {
+                if (!repo.addStudent(new Student(sid, name))) return false;
+                store.logMutation(Journal.ADD_STUDENT, sid, name);
+                return true;
+            }
+        } finally {
+            metrics.record(Metrics.Op.ADD_STUDENT, start);
+        }
+    }
+
+    // Removes the student and their enrollments, then fills the freed seats from the waitlists;
+    // false if not found
+    public boolean deleteStudent(String sid) throws IOException {
+        long start = System.nanoTime();
+        try {
+            List<String> freed = repo.studentCourses(sid);
+            synchronized (stripe(sid)) {
+                if (repo.removeStudent(sid) == null) return false;
+                store.logMutation(Journal.DELETE_STUDENT, sid);
+            }
+            for (String cid : freed) engine.promote(cid);
+            return true;
+        } finally {
+            metrics.record(Metrics.Op.DELETE_STUDENT, start);
+        }
+    }
+
+    // False if the student does not exist
+    public boolean renameStudent(String sid, String name) throws IOException {
+        checkName("student", name);
+        long start = System.nanoTime();
+        try {
+            synchronized (stripe(sid)) {
+                if (!repo.renameStudent(sid, name)) return false;
+                store.logMutation(Journal.RENAME_STUDENT, sid, name);
+                return true;
+            }
+        } finally {
+            metrics.record(Metrics.Op.RENAME, start);
+        }
+    }
+
+    // -------------------- Courses --------------------
+    public boolean addCourse(String cid, String name, int credits, int capacity) throws IOException {
+        return addCourse(cid, name, credits, capacity, 0);
+    }
+
+    // slots are the meeting times (see Schedule); 0 for none
+    public boolean addCourse(String cid, String name, int credits, int capacity, long slots) throws IOException {
+        checkId("course", cid);
+        checkName("course", name);
+        if (credits < 0) throw new IllegalArgumentException("credits must not be negative");
+        checkCapacity(capacity);
+        long start = System.nanoTime();
+        try {
+            synchronized (courseStripe(cid)) {
+                if (!repo.addCourse(new Course(cid, name, credits, capacity, slots))) return false;
+                store.logMutation(Journal.ADD_COURSE, cid, credits, capacity, name);
+                if (slots != 0) store.logMutation(Journal.SCHEDULE, cid, Schedule.format(slots));
+                return true;
+            }
+        } finally {
+            metrics.record(Metrics.Op.ADD_COURSE, start);
+        }
+    }
+
+    public boolean deleteCourse(String cid) throws IOException {
+        long start = System.nanoTime();
+        try {
+            synchronized (courseStripe(cid)) {
+                if (repo.removeCourse(cid) == null) return false;
+                store.logMutation(Journal.DELETE_COURSE, cid);
+                return true;
+            }
+        } finally {
+            metrics.record(Metrics.Op.DELETE_COURSE, start);
+        }
+    }
+
+    public boolean renameCourse(String cid, String name) throws IOException {
+        checkName("course", name);
+        long start = System.nanoTime();
+        try {
+            synchronized (courseStripe(cid)) {
+                if (!repo.renameCourse(cid, name)) return false;
+                store.logMutation(Journal.RENAME_COURSE, cid, name);
+                return true;
+            }
+        } finally {
+            metrics.record(Metrics.Op.RENAME, start);
+        }
+    }
+
+    // New seats go to the waitlist first; false if the course does not exist
+    public boolean updateCapacity(String cid, int capacity) throws IOException {
+        checkCapacity(capacity);
+        long start = System.nanoTime();
+        try {
+            synchronized (courseStripe(cid)) {
+                if (!repo.updateCapacity(cid, capacity)) return false;
+                store.logMutation(Journal.CAPACITY, cid, capacity);
+            }
+            engine.promote(cid);
+            return true;
+        } finally {
+            metrics.record(Metrics.Op.UPDATE_CAPACITY, start);
+        }
+    }
+
+    // Enrollments that now overlap are kept; false if the course does not exist
+    public boolean updateSchedule(String cid, long slots) throws IOException {
+        long start = System.nanoTime();
+        try {
+            synchronized (courseStripe(cid)) {
+                if (!repo.updateSchedule(cid, slots)) return false;
+                store.logMutation(Journal.SCHEDULE, cid, Schedule.format(slots));
+                return true;
+            }
+        } finally {
+            metrics.record(Metrics.Op.UPDATE_SCHEDULE, start);
+        }
+    }
+
+    // Applies to enrollments from now on; nobody is dropped for exceeding new limits
+    public void setRules(EnrollmentRules rules) throws IOException {
+        synchronized (rulesLock) {
+            repo.setRules(rules);
+            store.logMutation(Journal.RULES, rules.getMaxCredits(), rules.rejectsConflicts() ? "reject" : "allow");
+        }
+    }
+
+    // -------------------- Enrollments --------------------
+    public EnrollmentEngine.Result enroll(String sid, String cid) throws IOException {
+        long start = System.nanoTime();
+        try {
+            synchronized (stripe(sid)) {
+                EnrollmentEngine.Result result = engine.enroll(sid, cid);
+                if (result == EnrollmentEngine.Result.ENROLLED) store.logMutation(Journal.ENROLL, sid, cid);
+                return result;
+            }
+        } finally {
+            metrics.record(Metrics.Op.ENROLL, start);
+        }
+    }
+
+    // WAITLISTED is journaled by the listener; ENROLLED means a seat was free after all
+    public EnrollmentEngine.Result joinWaitlist(String sid, String cid, int priority) throws IOException {
+        long start = System.nanoTime();
+        try {
+            synchronized (stripe(sid)) {
+                EnrollmentEngine.Result result = engine.joinWaitlist(sid, cid, priority);
+                if (result == EnrollmentEngine.Result.ENROLLED) store.logMutation(Journal.ENROLL, sid, cid);
+                return result;
+            }
+        } finally {
+            metrics.record(Metrics.Op.JOIN_WAITLIST, start);
+        }
+    }
+
+    // Drops an enrollment or a waitlist place
+    public EnrollmentEngine.Result drop(String sid, String cid) throws IOException {
+        long start = System.nanoTime();
+        try {
+            EnrollmentEngine.Result result;
+            synchronized (stripe(sid)) {
+                result = engine.leave(sid, cid);
+                if (result == EnrollmentEngine.Result.DROPPED) store.logMutation(Journal.DROP, sid, cid);
+            }
+            if (result == EnrollmentEngine.Result.DROPPED) engine.promote(cid);
+            return result;
+        } finally {
+            metrics.record(Metrics.Op.DROP, start);
+        }
+    }
+
+    // IDs go unescaped into the comma-separated data files and the journal, and the student file
+    // lists course IDs separated by '|'
+    private static void checkId(String kind, String id) {
+        if (id.isEmpty()) throw new IllegalArgumentException(kind + " ID must not be empty");
+        for (int i = 0; i < id.length(); i++) {
+            char ch = id.charAt(i);
+            if (ch == ',' || ch == '|' || ch == '\n' || ch == '\r') {
+                throw new IllegalArgumentException(kind + " ID must not contain ',', '|' or line breaks");
+            }
+        }
+    }
+
+    // Each record in the data files is one line
+    private static void checkName(String kind, String name) {
+        if (name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException(kind + " name must not contain line breaks");
+        }
+    }
+
+    private static void checkCapacity(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative");
+    }
+
+    // -------------------- Persistence --------------------
+    public void load() {
+        store.load();
+    }
+
+    // Compacts: everything logged so far is durable and folded into the data files
+    public void save() throws IOException {
+        store.compact();
+    }
+
+    // Durability barrier without the compaction
+    public void sync() throws IOException {
+        store.sync();
+    }
+
+    // Final flush; stops the background writer
+    public void close() throws IOException {
+        store.close();
+    }
+
+    // Journals waitlist changes made by the engine, including promotions triggered by drops.
+    // Runs while the waitlist and the student's lock are held, so records are in the order the
+    // changes took effect, for the course and for the student.
+    private class WaitlistJournal implements EnrollmentEngine.WaitlistListener {
+        @Override
+        public void joined(String sid, String cid, int priority) {
+            log(Journal.WAIT, sid, cid, priority);
+        }
+
+        @Override
+        public void promoted(String sid, String cid) {
+            log(Journal.ENROLL, sid, cid);
+            promotionNotice.accept(sid, cid);
+        }
+
+        @Override
+        public void left(String sid, String cid) {
+            log(Journal.DROP, sid, cid);
+        }
+
+        // a failed append must not abort the promotion loop halfway
+        private void log(String type, Object... fields) {
+            try {
+                store.logMutation(type, fields);
+            } catch (IOException e) {
+                System.out.println("Failed to save waitlist change " + type + ": " + e.getMessage());
+            }
+        }
+    }
+}
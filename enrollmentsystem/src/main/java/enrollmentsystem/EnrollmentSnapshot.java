@@ -0,0 +1,266 @@
+// EnrollmentSnapshot.java
+// Read-only view of students, courses and enrollments as of one instant, for long reads (listings,
+// CSV export) while registration goes on. Taking one copies nothing. Until it is closed, every
+// mutation first keeps a copy of what it is about to change here: a course's member set, a
+// student's course set, a student or course record, each at most once. Reads use the kept copy
+// if there is one; otherwise the live data has not changed since the snapshot and is read as is.
+// Changes never wait for a reader beyond the copy of one set; the price is one copy per set or
+// record they touch per open snapshot.
+// Waitlist lengths are read live. With lazy loading, the student listing streams students.txt,
+// so a student added or deleted while it runs may be missed or listed.
+// Close it (try-with-resources) as soon as the read is done.
+
+package enrollmentsystem;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+public class EnrollmentSnapshot implements EnrollmentView, AutoCloseable {
+    // Kept for IDs that did not exist at the snapshot
+    private static final Student NO_STUDENT = new Student("", "");
+    private static final Course NO_COURSE = new Course("", "", 0, 0);
+    private static final int[] NONE = new int[0];
+
+    private final EnrollmentRepository repo;
+    // IDs interned later did not exist at the snapshot
+    private final int studentLimit;
+    private final int courseLimit;
+    private final int enrollments;
+    private final Map<Integer, int[]> keptMembers = new ConcurrentHashMap<>(); // course -> student ints
+    private final Map<Integer, int[]> keptCourses = new ConcurrentHashMap<>(); // student -> course ints
+    private final Map<String, Student> keptStudents = new ConcurrentHashMap<>();
+    private final Map<String, Course> keptCourseRecords = new ConcurrentHashMap<>();
+
+    EnrollmentSnapshot(EnrollmentRepository repo, int studentLimit, int courseLimit, int enrollments) {
+        this.repo = repo;
+        this.studentLimit = studentLimit;
+        this.courseLimit = courseLimit;
+        this.enrollments = enrollments;
+    }
+
+    @Override
+    public void close() {
+        repo.forget(this);
+    }
+
+    // -------------------- Copies (from the repository, before each change) --------------------
+    // The repository holds the set's lock
+    void keepMembers(int ci, IntSet members) {
+        if (ci < courseLimit) keptMembers.computeIfAbsent(ci, k -> members.toArray());
+    }
+
+    void keepCourses(int si, IntSet courses) {
+        if (si < studentLimit) keptCourses.computeIfAbsent(si, k -> courses.toArray());
+    }
+
+    // Only the first change to a record keeps it. The record is read inside computeIfAbsent, so a
+    // second change racing the first cannot keep what the first already changed.
+    void keepStudent(String sid) {
+        keptStudents.computeIfAbsent(sid, k -> {
+            Student s = repo.findStudent(sid);
+            return s == null ? NO_STUDENT : new Student(sid, s.getName());
+        });
+    }
+
+    void keepCourse(String cid) {
+        keptCourseRecords.computeIfAbsent(cid, k -> {
+            Course c = repo.findCourse(cid);
+            return c == null ? NO_COURSE : copy(c);
+        });
+    }
+
+    // -------------------- Records --------------------
+    // A copy of the record as it was at the snapshot. The live record is read first and the kept
+    // copies checked again after: a change since the snapshot kept its copy before it was made.
+    @Override
+    public Student findStudent(String sid) {
+        Student kept = keptStudents.get(sid);
+        if (kept == null) {
+            Student live = repo.findStudent(sid);
+            String name = live == null ? null : live.getName();
+            kept = keptStudents.get(sid);
+            if (kept == null) return live == null ? null : new Student(sid, name);
+        }
+        return kept == NO_STUDENT ? null : kept;
+    }
+
+    @Override
+    public Course findCourse(String cid) {
+        Course kept = keptCourseRecords.get(cid);
+        if (kept == null) {
+            Course live = repo.findCourse(cid);
+            Course c = live == null ? null : copy(live);
+            kept = keptCourseRecords.get(cid);
+            if (kept == null) return c;
+        }
+        return kept == NO_COURSE ? null : kept;
+    }
+
+    private static Course copy(Course c) {
+        return new Course(c.getCourseId(), c.getCourseName(), c.getCredits(), c.getCapacity(), c.getSlots());
+    }
+
+    // By interned ID, skipping IDs that did not exist at the snapshot (lazily loaded: students.txt order)
+    @Override
+    public Iterable<Student> getStudents() {
+        if (repo.studentFile() != null) {
+            return () -> repo.getStudents().stream().map(s -> findStudent(s.getStudentId())).filter(Objects::nonNull).iterator();
+        }
+        return () -> IntStream.range(0, studentLimit).mapToObj(si -> findStudent(repo.studentKey(si))).filter(Objects::nonNull).iterator();
+    }
+
+    @Override
+    public Iterable<Course> getCourses() {
+        return () -> IntStream.range(0, courseLimit).mapToObj(ci -> findCourse(repo.courseKey(ci))).filter(Objects::nonNull).iterator();
+    }
+
+    // -------------------- Enrollments --------------------
+    // Course by course, like the live view
+    @Override
+    public Iterable<Enrollment> getEnrollments() {
+        return () -> new Iterator<Enrollment>() {
+            private int course = -1;
+            private int[] members = NONE;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == members.length) {
+                    if (++course >= courseLimit) return false;
+                    members = members(course);
+                    next = 0;
+                }
+                return true;
+            }
+
+            @Override
+            public Enrollment next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return new Enrollment(repo.studentKey(members[next++]), repo.courseKey(course));
+            }
+        };
+    }
+
+    @Override
+    public int enrollmentCount() {
+        return enrollments;
+    }
+
+    @Override
+    public List<String> courseMembers(String cid) {
+        int[] members = members(repo.courseIndex(cid));
+        List<String> ids = new ArrayList<>(members.length);
+        for (int si : members) ids.add(repo.studentKey(si));
+        return ids;
+    }
+
+    @Override
+    public List<String> studentCourses(String sid) {
+        int[] courses = courses(repo.studentIndex(sid));
+        List<String> ids = new ArrayList<>(courses.length);
+        for (int ci : courses) ids.add(repo.courseKey(ci));
+        return ids;
+    }
+
+    @Override
+    public int enrolledCount(String cid) {
+        int ci = repo.courseIndex(cid);
+        if (ci < 0 || ci >= courseLimit) return 0;
+        IntSet live = repo.membersOf(ci);
+        synchronized (live) {
+            int[] kept = keptMembers.get(ci);
+            return kept != null ? kept.length : live.size();
+        }
+    }
+
+    @Override
+    public int studentCourseCount(String sid) {
+        return courses(repo.studentIndex(sid)).length;
+    }
+
+    @Override
+    public int studentCredits(String sid) {
+        int credits = 0;
+        for (String cid : studentCourses(sid)) {
+            Course c = findCourse(cid);
+            if (c != null) credits += c.getCredits();
+        }
+        return credits;
+    }
+
+    @Override
+    public int waitlistSize(String cid) {
+        return repo.waitlistSize(cid);
+    }
+
+    // Read under the set's lock, so the set cannot change between the check and the copy
+    private int[] members(int ci) {
+        if (ci < 0 || ci >= courseLimit) return NONE;
+        IntSet live = repo.membersOf(ci);
+        synchronized (live) {
+            int[] kept = keptMembers.get(ci);
+            return kept != null ? kept : live.toArray();
+        }
+    }
+
+    private int[] courses(int si) {
+        if (si < 0 || si >= studentLimit) return NONE;
+        IntSet live = repo.coursesOf(si);
+        synchronized (live) {
+            int[] kept = keptCourses.get(si);
+            return kept != null ? kept : live.toArray();
+        }
+    }
+
+    // -------------------- Search --------------------
+    // The live indexes plus every record changed since the snapshot; callers check the names
+    @Override
+    public List<String> searchStudents(String pattern) {
+        return withKept(repo.searchStudents(pattern), keptStudents.keySet());
+    }
+
+    @Override
+    public List<String> searchCourses(String pattern) {
+        return withKept(repo.searchCourses(pattern), keptCourseRecords.keySet());
+    }
+
+    @Override
+    public List<String> coursesByCredits(int min, int max) {
+        List<Course> found = new ArrayList<>();
+        for (String cid : withKept(repo.coursesByCredits(min, max), keptCourseRecords.keySet())) {
+            Course c = findCourse(cid);
+            if (c != null && c.getCredits() >= min && c.getCredits() <= max) found.add(c);
+        }
+        found.sort(Comparator.comparingInt(Course::getCredits).thenComparing(Course::getCourseId));
+        return ids(found);
+    }
+
+    // Open seats change with every enrollment, so the live index is no help: scans the courses
+    @Override
+    public List<String> coursesByOpenSeats(int min, int max) {
+        List<Course> found = new ArrayList<>();
+        Map<String, Integer> open = new HashMap<>();
+        for (Course c : getCourses()) {
+            int seats = c.getCapacity() - enrolledCount(c.getCourseId());
+            if (seats < min || seats > max) continue;
+            found.add(c);
+            open.put(c.getCourseId(), seats);
+        }
+        found.sort(Comparator.comparingInt((Course c) -> open.get(c.getCourseId())).thenComparing(Course::getCourseId));
+        return ids(found);
+    }
+
+    private static List<String> withKept(List<String> live, Set<String> kept) {
+        if (kept.isEmpty()) return live;
+        Set<String> ids = new LinkedHashSet<>(live);
+        ids.addAll(kept);
+        return new ArrayList<>(ids);
+    }
+
+    private static List<String> ids(List<Course> courses) {
+        List<String> ids = new ArrayList<>(courses.size());
+        for (Course c : courses) ids.add(c.getCourseId());
+        return ids;
+    }
+}
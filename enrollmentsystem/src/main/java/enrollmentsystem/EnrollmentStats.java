@@ -0,0 +1,198 @@
+// EnrollmentStats.java
+// Aggregates kept current on every enroll, drop, capacity or waitlist change and delete, so
+// dashboards read them in O(1) instead of streaming every enrollment:
+//   totals   students, courses, enrollments, seats, enrolled credits, students waiting, full courses
+//   ranking  courses by demand, (enrolled + waiting) per seat: the fullest and most oversubscribed
+//            come first. Ordered like RangeIndex and built the first time it is read.
+// Per-course counts and per-student credit totals are read straight from the repository, which
+// maintains them anyway. verify() recomputes all of it from scratch and lists any difference.
+
+package enrollmentsystem;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EnrollmentStats {
+    // Point-in-time copy of the global counters
+    public static final class Totals {
+        private final int students;
+        private final int courses;
+        private final int enrollments;
+        private final long seats;
+        private final long credits;
+        private final int waiting;
+        private final int fullCourses;
+
+        Totals(int students, int courses, int enrollments, long seats, long credits, int waiting, int fullCourses) {
+            this.students = students;
+            this.courses = courses;
+            this.enrollments = enrollments;
+            this.seats = seats;
+            this.credits = credits;
+            this.waiting = waiting;
+            this.fullCourses = fullCourses;
+        }
+
+        public int getStudents() {
+            return students;
+        }
+
+        public int getCourses() {
+            return courses;
+        }
+
+        public int getEnrollments() {
+            return enrollments;
+        }
+
+        // Sum of all course capacities
+        public long getSeats() {
+            return seats;
+        }
+
+        // Sum of the credits of every enrollment
+        public long getCredits() {
+            return credits;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public int getFullCourses() {
+            return fullCourses;
+        }
+
+        // Share of all seats taken, 0..1 (more if courses are over capacity)
+        public double getFillRate() {
+            return seats == 0 ? 0 : (double) enrollments / seats;
+        }
+    }
+
+    private final EnrollmentRepository repo;
+    private final AtomicLong seats = new AtomicLong();
+    private final AtomicLong credits = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger(); // shared with every Waitlist
+    private final Set<Integer> fullCourses = ConcurrentHashMap.newKeySet();
+    private final RangeIndex demand = new RangeIndex();
+    private final Object[] stripes = new Object[64];
+
+    EnrollmentStats(EnrollmentRepository repo) {
+        this.repo = repo;
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new Object();
+    }
+
+    public Totals totals() {
+        return new Totals(repo.studentCount(), repo.courseCount(), repo.enrollmentCount(),
+                seats.get(), credits.get(), waiting.get(), fullCourses.size());
+    }
+
+    // Demand per thousand seats: 1000 is exactly full, above that the waitlist is longer than zero
+    public static int demandOf(int enrolled, int waiting, int capacity) {
+        return (int) Math.min(Integer.MAX_VALUE, (enrolled + (long) waiting) * 1000 / Math.max(1, capacity));
+    }
+
+    // -------------------- Updates (from the repository) --------------------
+    void seatsAdded(long delta) {
+        seats.addAndGet(delta);
+    }
+
+    void creditsAdded(long delta) {
+        credits.addAndGet(delta);
+    }
+
+    AtomicInteger waitingCounter() {
+        return waiting;
+    }
+
+    // Re-reads the course's current counts, so whichever update runs last leaves the right answer;
+    // a deleted course is dropped from the full set and the ranking
+    void courseChanged(int ci, String cid) {
+        synchronized (stripes[ci & (stripes.length - 1)]) {
+            Course c = repo.findCourse(cid);
+            if (c == null) {
+                fullCourses.remove(ci);
+                demand.remove(ci);
+                return;
+            }
+            if (repo.enrolledCount(cid) >= c.getCapacity()) fullCourses.add(ci);
+            else fullCourses.remove(ci);
+            demand.update(ci, () -> demandOf(repo.enrolledCount(cid), repo.waitlistSize(cid), c.getCapacity()));
+        }
+    }
+
+    // Interned course IDs with the highest demand, highest first
+    int[] busiest(int n, RangeIndex.Source courses) {
+        if (!demand.isBuilt()) demand.build(courses);
+        return demand.top(n);
+    }
+
+    void clear() {
+        seats.set(0);
+        credits.set(0);
+        waiting.set(0);
+        fullCourses.clear();
+        demand.clear();
+    }
+
+    // -------------------- Verification --------------------
+    // Recomputes every statistic from the raw enrollments and waitlists and describes each
+    // difference from the maintained values; empty when they agree. Only meaningful while no
+    // changes are being made.
+    public static List<String> verify(EnrollmentRepository repo) {
+        List<String> problems = new ArrayList<>();
+        Map<String, Integer> enrolled = new HashMap<>();
+        Map<String, Integer> studentCredits = new HashMap<>();
+        long credits = 0;
+        int enrollments = 0;
+        for (Enrollment e : repo.getEnrollments()) {
+            enrollments++;
+            enrolled.merge(e.getCourseId(), 1, Integer::sum);
+            Course c = repo.findCourse(e.getCourseId());
+            int cr = c == null ? 0 : c.getCredits();
+            studentCredits.merge(e.getStudentId(), cr, Integer::sum);
+            credits += cr;
+        }
+        long seats = 0;
+        int full = 0;
+        List<Integer> demands = new ArrayList<>();
+        for (Course c : repo.getCourses()) {
+            String cid = c.getCourseId();
+            int n = enrolled.getOrDefault(cid, 0);
+            if (n != repo.enrolledCount(cid)) problems.add(cid + " counts " + repo.enrolledCount(cid) + " enrolled, recount " + n);
+            seats += c.getCapacity();
+            if (n >= c.getCapacity()) full++;
+            demands.add(demandOf(n, repo.waitlistSize(cid), c.getCapacity()));
+        }
+        for (Student s : repo.getStudents()) {
+            String sid = s.getStudentId();
+            int expected = studentCredits.getOrDefault(sid, 0);
+            if (expected != repo.studentCredits(sid)) problems.add(sid + " carries " + repo.studentCredits(sid) + " credits, recount " + expected);
+        }
+        int waiting = 0;
+        for (Waitlist w : repo.getWaitlists().values()) waiting += w.size();
+
+        Totals t = repo.totals();
+        compare(problems, "enrollments", t.getEnrollments(), enrollments);
+        compare(problems, "seats", t.getSeats(), seats);
+        compare(problems, "enrolled credits", t.getCredits(), credits);
+        compare(problems, "waiting", t.getWaiting(), waiting);
+        compare(problems, "full courses", t.getFullCourses(), full);
+
+        // ties may list different courses, so compare the demand values rank by rank
+        demands.sort(Collections.reverseOrder());
+        List<String> busiest = repo.busiestCourses(10);
+        for (int i = 0; i < Math.min(10, demands.size()); i++) {
+            Course c = i < busiest.size() ? repo.findCourse(busiest.get(i)) : null;
+            int got = c == null ? -1 : demandOf(repo.enrolledCount(c.getCourseId()), repo.waitlistSize(c.getCourseId()), c.getCapacity());
+            if (got != demands.get(i)) problems.add("busiest #" + (i + 1) + " has demand " + got + ", recount " + demands.get(i));
+        }
+        return problems;
+    }
+
+    private static void compare(List<String> problems, String what, long maintained, long recount) {
+        if (maintained != recount) problems.add(what + ": " + maintained + ", recount " + recount);
+    }
+}
@@ -0,0 +1,47 @@
+// EnrollmentView.java
+// The read side of the enrollment data, as used by the listings and the CSV export. Implemented by
+// EnrollmentRepository (live data, changing while it is read) and by EnrollmentSnapshot (the
+// data as of one instant).
+
+package enrollmentsystem;
+
+import java.util.List;
+
+public interface EnrollmentView {
+    Student findStudent(String sid);
+
+    Course findCourse(String cid);
+
+    Iterable<Student> getStudents();
+
+    Iterable<Course> getCourses();
+
+    // Grouped by course
+    Iterable<Enrollment> getEnrollments();
+
+    int enrollmentCount();
+
+    List<String> courseMembers(String cid);
+
+    List<String> studentCourses(String sid);
+
+    int enrolledCount(String cid);
+
+    int studentCourseCount(String sid);
+
+    int studentCredits(String sid);
+
+    int waitlistSize(String cid);
+
+    // Candidates for a name search ("text" or "text*", see EnrollmentRepository.searchStudents);
+    // may include IDs whose names do not match, so callers check the names again
+    List<String> searchStudents(String pattern);
+
+    List<String> searchCourses(String pattern);
+
+    // Course IDs with min <= credits <= max, fewest credits first
+    List<String> coursesByCredits(int min, int max);
+
+    // Course IDs with min <= (capacity - enrolled) <= max, fullest first
+    List<String> coursesByOpenSeats(int min, int max);
+}
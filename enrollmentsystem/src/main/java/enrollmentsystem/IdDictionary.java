@@ -0,0 +1,45 @@
+// IdDictionary.java
+// Maps ID strings to dense ints (0, 1, 2, ...) so enrollments can be stored as primitive ints.
+// Lookups are lock-free; interning a new ID is synchronized and happens once per entity.
+
+package enrollmentsystem;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class IdDictionary {
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] keys = new String[16];
+    private int size;
+
+    // Dense int for key, or -1 if it was never interned
+    public int lookup(String key) {
+        Integer id = ids.get(key);
+        return id == null ? -1 : id;
+    }
+
+    public synchronized int intern(String key) {
+        Integer existing = ids.get(key);
+        if (existing != null) return existing;
+        int id = size;
+        if (id == keys.length) keys = Arrays.copyOf(keys, id * 2);
+        keys[id] = key;
+        size = id + 1;
+        ids.put(key, id); // published last: whoever sees the id also sees its key
+        return id;
+    }
+
+    public String key(int id) {
+        return keys[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        ids.clear();
+        keys = new String[16];
+        size = 0;
+    }
+}
@@ -0,0 +1,98 @@
+// IntSet.java
+// Compact set of non-negative ints: open addressing with linear probing over a plain int[],
+// about 4-8 bytes per member instead of a boxed entry. Methods are synchronized so each set
+// is its own lock; enroll/drop on different courses or students never contend.
+
+package enrollmentsystem;
+
+import java.util.Arrays;
+
+public class IntSet {
+    private static final int EMPTY = -1;
+
+    private int[] table;
+    private int size;
+
+    public IntSet(int expected) {
+        int capacity = 2;
+        while (capacity * 3 < expected * 4) capacity <<= 1;
+        table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+    }
+
+    public synchronized boolean contains(int value) {
+        int mask = table.length - 1;
+        for (int i = slot(value, mask); table[i] != EMPTY; i = (i + 1) & mask) {
+            if (table[i] == value) return true;
+        }
+        return false;
+    }
+
+    public synchronized boolean add(int value) {
+        int mask = table.length - 1;
+        int i = slot(value, mask);
+        for (; table[i] != EMPTY; i = (i + 1) & mask) {
+            if (table[i] == value) return false;
+        }
+        table[i] = value;
+        if (++size * 4 > table.length * 3) rehash(table.length * 2);
+        return true;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    public synchronized boolean remove(int value) {
+        int mask = table.length - 1;
+        int i = slot(value, mask);
+        while (table[i] != value) {
+            if (table[i] == EMPTY) return false;
+            i = (i + 1) & mask;
+        }
+        int gap = i;
+        for (int j = (gap + 1) & mask; table[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(table[j], mask);
+            // move j into the gap if its home slot is not between the gap and j (cyclically)
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                table[gap] = table[j];
+                gap = j;
+            }
+        }
+        table[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Copy of the members, safe to iterate while the set keeps changing
+    public synchronized int[] toArray() {
+        int[] out = new int[size];
+        int n = 0;
+        for (int v : table) if (v != EMPTY) out[n++] = v;
+        return out;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        int mask = capacity - 1;
+        for (int v : old) {
+            if (v == EMPTY) continue;
+            int i = slot(v, mask);
+            while (table[i] != EMPTY) i = (i + 1) & mask;
+            table[i] = v;
+        }
+    }
+
+    private static int slot(int value, int mask) {
+        int h = value * 0x9E3779B9; // Fibonacci hashing spreads dense ids
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
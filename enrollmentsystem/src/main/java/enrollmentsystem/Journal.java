@@ -0,0 +1,204 @@
+// Journal.java
+// Append-only write-ahead log: one small record per mutation instead of rewriting the data files.
+// Appends only buffer the record; flush() writes everything buffered with one write and one fsync
+// (group commit), so a burst of mutations costs a single disk sync.
+// A compaction first rotates the log into a previous segment, which is deleted once the data
+// files hold it; replay reads the previous segment (left behind by a failed compaction) first.
+
+package enrollmentsystem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+public class Journal {
+    // Record types. Free-text fields (names) always come last so they may contain commas.
+    public static final String ADD_STUDENT = "ADD_STUDENT"; // ADD_STUDENT,studentId,name
+    public static final String DELETE_STUDENT = "DEL_STUDENT"; // DEL_STUDENT,studentId
+    public static final String ADD_COURSE = "ADD_COURSE"; // ADD_COURSE,courseId,credits,capacity,name
+    public static final String DELETE_COURSE = "DEL_COURSE"; // DEL_COURSE,courseId
+    public static final String ENROLL = "ENROLL"; // ENROLL,studentId,courseId
+    public static final String DROP = "DROP"; // DROP,studentId,courseId (enrollment or waitlist place)
+    public static final String WAIT = "WAIT"; // WAIT,studentId,courseId,priority
+    public static final String CAPACITY = "CAPACITY"; // CAPACITY,courseId,capacity
+    public static final String RENAME_STUDENT = "RENAME_STUDENT"; // RENAME_STUDENT,studentId,name
+    public static final String RENAME_COURSE = "RENAME_COURSE"; // RENAME_COURSE,courseId,name
+    public static final String SCHEDULE = "SCHEDULE"; // SCHEDULE,courseId,meetingTimes (Schedule text form)
+    public static final String RULES = "RULES"; // RULES,maxCredits,reject|allow
+
+    // Number of fields per record type; the last field takes the rest of the line
+    private static int fieldCount(String type) {
+        switch (type) {
+            case ADD_STUDENT: return 3;
+            case ADD_COURSE: return 5;
+            case ENROLL: case DROP: case CAPACITY: case RENAME_STUDENT: case RENAME_COURSE: case SCHEDULE: case RULES: return 3;
+            case WAIT: return 4;
+            default: return 2;
+        }
+    }
+
+    public interface Handler {
+        void apply(String[] fields);
+    }
+
+    private final Path file;
+    private final Path previous;
+    private final int compactThreshold;
+    // Serializes flushes and rotation; appends never wait for it
+    private final Object io = new Object();
+    private FileChannel channel;
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(); // appended, not yet written
+    private int buffered; // records in buffer
+    private int pending; // records appended since the last rotation
+
+    public Journal(Path file, int compactThreshold) {
+        this.file = file;
+        this.previous = file.resolveSibling(file.getFileName() + ".old");
+        this.compactThreshold = compactThreshold;
+    }
+
+    // Buffers a single record; it is on disk after the next flush.
+    // Returns the number of bytes appended.
+    public synchronized int append(String type, Object... fields) {
+        StringBuilder sb = new StringBuilder(type);
+        for (Object f : fields) sb.append(',').append(String.valueOf(f).replace("\n", " ").replace("\r", " "));
+        byte[] record = sb.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+        buffer.write(record, 0, record.length);
+        buffered++;
+        pending++;
+        return record.length;
+    }
+
+    // Records appended but not yet flushed
+    public synchronized int buffered() {
+        return buffered;
+    }
+
+    public synchronized boolean needsCompaction() {
+        return pending >= compactThreshold;
+    }
+
+    // Writes every buffered record and forces it to disk; returns the number of records written.
+    // Records appended by other threads while this runs wait for the next flush.
+    public int flush() throws IOException {
+        synchronized (io) {
+            byte[] bytes;
+            int records;
+            synchronized (this) {
+                if (buffered == 0) return 0;
+                bytes = buffer.toByteArray();
+                records = buffered;
+                buffer.reset();
+                buffered = 0;
+            }
+            FileChannel ch = channel();
+            long size = ch.size();
+            try {
+                ByteBuffer b = ByteBuffer.wrap(bytes);
+                while (b.hasRemaining()) ch.write(b);
+                ch.force(false);
+            } catch (IOException e) {
+                // cut off any partial record and keep the batch for the next attempt
+                try {
+                    ch.truncate(size);
+                } catch (IOException ignored) {
+                    // replay skips a torn last line
+                }
+                synchronized (this) {
+                    ByteArrayOutputStream retry = new ByteArrayOutputStream(bytes.length + buffer.size());
+                    retry.write(bytes, 0, bytes.length);
+                    buffer.writeTo(retry);
+                    buffer = retry;
+                    buffered += records;
+                }
+                throw e;
+            }
+            return records;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            boolean created = !Files.exists(file);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (created) DurableFiles.syncDirectory(file);
+        }
+        return channel;
+    }
+
+    // Replays the previous segment, then the current log, on top of the already loaded snapshot;
+    // returns the number of records applied
+    public int replay(Handler handler) throws IOException {
+        synchronized (io) {
+            int count = replay(previous, handler) + replay(file, handler);
+            synchronized (this) {
+                pending = count;
+            }
+            return count;
+        }
+    }
+
+    private static int replay(Path log, Handler handler) throws IOException {
+        RecordTokenizer tok = new RecordTokenizer();
+        return RecordReader.read(log, (line, lineNumber) -> {
+            tok.reset(line);
+            String type = tok.next(',');
+            String[] fields = new String[fieldCount(type)];
+            fields[0] = type;
+            for (int i = 1; i < fields.length; i++) {
+                if (!tok.hasMore()) throw new MalformedRecordException("truncated " + type + " record");
+                fields[i] = i == fields.length - 1 ? tok.rest() : tok.next(',');
+            }
+            handler.apply(fields);
+        });
+    }
+
+    // Flushes and moves everything logged so far into the previous segment and starts an empty log.
+    // The caller must keep appends out while this runs so the segment ends at a known point.
+    public void rotate() throws IOException {
+        synchronized (io) {
+            flush();
+            closeChannel();
+            if (Files.exists(file)) {
+                if (Files.exists(previous)) {
+                    // an earlier compaction failed: its segment is still needed, so extend it
+                    try (FileChannel prev = FileChannel.open(previous, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                        ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file));
+                        while (b.hasRemaining()) prev.write(b);
+                        prev.force(false);
+                    }
+                    Files.delete(file);
+                    DurableFiles.syncDirectory(file);
+                } else {
+                    DurableFiles.replace(file, previous);
+                }
+            }
+            synchronized (this) {
+                pending = buffered;
+            }
+        }
+    }
+
+    // Called once the data files hold everything in the previous segment
+    public void deletePrevious() throws IOException {
+        if (Files.deleteIfExists(previous)) DurableFiles.syncDirectory(previous);
+    }
+
+    // Flushes what is buffered and releases the file
+    public void close() throws IOException {
+        synchronized (io) {
+            flush();
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,591 @@
+// Main.java
+// Entry point with console menu and file I/O coordination.
+// Run with --serve [port] to expose the same operations over HTTP instead (see ApiServer).
+// --lazy (before --serve, or alone) reads student records on demand instead of all at startup.
+// --import students=FILE courses=FILE enrollments=FILE [report=FILE] bulk-loads CSV files and exits
+// (see BatchImport).
+
+package enrollmentsystem;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.*;
+import java.util.*;
+
+public class Main {
+    // Data files live in the working directory
+    private static final Path DATA_DIR = Paths.get("");
+
+    private static final Path METRICS_FILE = Paths.get("metrics.prom");
+
+    private static final int DEFAULT_PORT = 8080;
+
+    // Group commit settings, e.g. -Denrollment.flushMillis=0 to commit every change before returning
+    private static final long FLUSH_MILLIS = Long.getLong("enrollment.flushMillis", DataStore.FLUSH_INTERVAL_MILLIS);
+    private static final int FLUSH_BATCH = Integer.getInteger("enrollment.flushBatch", DataStore.FLUSH_BATCH);
+    // Unchanged students kept in memory with --lazy, e.g. -Denrollment.studentCache=100000
+    private static final int STUDENT_CACHE = Integer.getInteger("enrollment.studentCache", 10_000);
+    // Students and enrollments split into this many shard files, e.g. -Denrollment.shards=16 (0 = single files)
+    private static final int SHARDS = Integer.getInteger("enrollment.shards", 0);
+
+    private static Metrics metrics = new Metrics();
+    private static EnrollmentRepository repo = new EnrollmentRepository();
+    private static EnrollmentEngine engine = new EnrollmentEngine(repo, metrics);
+    private static DataStore store = new DataStore(DATA_DIR, repo, metrics);
+    private static EnrollmentService service = new EnrollmentService(repo, engine, store, metrics);
+    private static ReportRenderer report = new ReportRenderer(repo, System.out);
+
+    private static Scanner scanner = new Scanner(System.in);
+
+    public static void main(String[] args) {
+        store.setFlushInterval(FLUSH_MILLIS);
+        store.setFlushBatch(FLUSH_BATCH);
+        store.setShards(SHARDS);
+        int arg = 0;
+        if (args.length > arg && args[arg].equals("--lazy")) {
+            store.setLazyStudents(STUDENT_CACHE);
+            arg++;
+        }
+        if (args.length > arg && args[arg].equals("--import")) {
+            System.exit(importBatch(Arrays.copyOfRange(args, arg + 1, args.length)) ? 0 : 1);
+        }
+        if (args.length > arg && args[arg].equals("--serve")) {
+            int port = args.length > arg + 1 ? parsePort(args[arg + 1]) : DEFAULT_PORT;
+            if (port < 0) {
+                System.out.println("Invalid port: " + args[arg + 1] + ". Usage: [--lazy] --serve [port], port 0-65535");
+                System.exit(1);
+            }
+            serve(port);
+            return;
+        }
+        service.setPromotionNotice((sid, cid) -> System.out.println("Student " + sid + " promoted from the waitlist into " + cid + "."));
+        loadAllData();
+        // Ctrl+C still writes out changes the background writer has not committed yet
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::closeData));
+        boolean running = true;
+        while (running) {
+            printMenu();
+            String choice = scanner.nextLine().trim();
+            switch (choice) {
+                case "1": addStudent(); break;
+                case "2": viewAllStudents(); break;
+                case "3": deleteStudent(); break;
+                case "4": addCourse(); break;
+                case "5": viewAllCourses(); break;
+                case "6": deleteCourse(); break;
+                case "7": enrollStudentInCourse(); break;
+                case "8": viewAllEnrollments(); break;
+                case "9": dropStudentFromCourse(); break;
+                case "10": exportEnrollmentsCsv(); break;
+                case "11": saveAllData(); running = false; System.out.println("Saved. Exiting."); break;
+                case "12": viewMetrics(); break;
+                case "13": exportMetrics(); break;
+                case "14": updateCourseCapacity(); break;
+                case "15": viewWaitlist(); break;
+                case "16": renameStudentOrCourse(); break;
+                case "17": updateCourseSchedule(); break;
+                case "18": updateEnrollmentRules(); break;
+                case "19": viewStatistics(); break;
+                default: System.out.println("Invalid choice. Try again."); break;
+            }
+        }
+    }
+
+    private static void printMenu() {
+        System.out.println("\n===== ONLINE ENROLLMENT SYSTEM =====");
+        System.out.println("1. Add Student");
+        System.out.println("2. View All Students");
+        System.out.println("3. Delete Student");
+        System.out.println("4. Add Course");
+        System.out.println("5. View All Courses");
+        System.out.println("6. Delete Course");
+        System.out.println("7. Enroll Student in Course");
+        System.out.println("8. View All Enrollments");
+        System.out.println("9. Drop Student from Course");
+        System.out.println("10. Export Enrollments to CSV");
+        System.out.println("11. Exit and Save");
+        System.out.println("12. View Metrics");
+        System.out.println("13. Export Metrics");
+        System.out.println("14. Update Course Capacity");
+        System.out.println("15. View Course Waitlist");
+        System.out.println("16. Rename Student or Course");
+        System.out.println("17. Set Course Meeting Times");
+        System.out.println("18. Credit Limit and Schedule Rules");
+        System.out.println("19. View Statistics");
+        System.out.print("Enter choice: ");
+    }
+
+    // Serves the HTTP API until the process is stopped; data is saved on shutdown
+    private static void serve(int port) {
+        loadAllData();
+        try {
+            ApiServer server = new ApiServer(service, new InetSocketAddress(port));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(2);
+                saveAllData();
+                closeData();
+                System.out.println("Saved. Stopped.");
+            }));
+            server.start();
+            System.out.println("Serving on http://localhost:" + server.port() + "/ (Ctrl+C to save and stop)");
+        } catch (IOException e) {
+            System.out.println("Failed to start server: " + e.getMessage());
+        }
+    }
+
+    // -1 if not a valid port number
+    private static int parsePort(String s) {
+        try {
+            int port = Integer.parseInt(s);
+            return port >= 0 && port <= 65535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Loads the data, imports, saves once; false if the import could not run
+    private static boolean importBatch(String[] options) {
+        BatchImport batch = new BatchImport(repo, engine, store, metrics);
+        try {
+            batch.options(options);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid import option: " + e.getMessage());
+            return false;
+        }
+        loadAllData();
+        long start = System.nanoTime();
+        try {
+            batch.run();
+            System.out.printf("%s Took %.1f s.%n", batch.summary(), (System.nanoTime() - start) / 1e9);
+            return true;
+        } catch (IllegalArgumentException | IOException e) {
+            System.out.println("Import failed: " + e.getMessage());
+            return false;
+        } finally {
+            closeData();
+        }
+    }
+
+    // -------------------- Load & Save --------------------
+    private static void loadAllData() {
+        service.load();
+        System.out.println("Data loaded: " + repo.studentCount() + " students, " + repo.courseCount() + " courses, " + repo.enrollmentCount() + " enrollments.");
+    }
+
+    // Durability barrier: returns once every change is on disk and folded into the data files
+    private static void saveAllData() {
+        try {
+            service.save();
+        } catch (IOException e) {
+            System.out.println("Error saving data: " + e.getMessage());
+        }
+    }
+
+    private static void closeData() {
+        try {
+            service.close();
+        } catch (IOException e) {
+            System.out.println("Error saving data: " + e.getMessage());
+        }
+    }
+
+    // -------------------- Student operations --------------------
+    private static void addStudent() {
+        System.out.print("Enter Student ID: ");
+        String sid = scanner.nextLine().trim();
+        if (findStudentById(sid) != null) {
+            System.out.println("Student ID already exists.");
+            return;
+        }
+        System.out.print("Enter Student Name: ");
+        String name = scanner.nextLine().trim();
+        try {
+            if (service.addStudent(sid, name)) System.out.println("Student added and saved.");
+            else System.out.println("Student ID already exists.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid input: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Added but failed to save: " + e.getMessage());
+        }
+    }
+
+    private static void viewAllStudents() {
+        if (repo.studentCount() == 0) {
+            System.out.println("No students found.");
+            return;
+        }
+        ReportQuery q = readReportQuery("course=ID student=ID name=TEXT", "id", "name", "courses");
+        long start = System.nanoTime();
+        try {
+            report.students(q);
+        } catch (IOException e) {
+            System.out.println("Failed to list students: " + e.getMessage());
+        }
+        metrics.record(Metrics.Op.VIEW_STUDENTS, start);
+    }
+
+    private static void deleteStudent() {
+        System.out.print("Enter Student ID to delete: ");
+        String sid = scanner.nextLine().trim();
+        try {
+            // removes the student and their related enrollments
+            if (service.deleteStudent(sid)) System.out.println("Student and related enrollments deleted.");
+            else System.out.println("Student not found.");
+        } catch (IOException e) {
+            System.out.println("Deleted but failed to save: " + e.getMessage());
+        }
+    }
+
+    // -------------------- Course operations --------------------
+    private static void addCourse() {
+        System.out.print("Enter Course ID: ");
+        String cid = scanner.nextLine().trim();
+        if (findCourseById(cid) != null) {
+            System.out.println("Course ID already exists.");
+            return;
+        }
+        System.out.print("Enter Course Name: ");
+        String name = scanner.nextLine().trim();
+        int credits = readIntSafe("Enter Credits (integer): ");
+        int capacity = readIntSafe("Enter Capacity (integer): ");
+        long slots = readSchedule("Enter Meeting Times (e.g. MoWe9-11 Fr14-16, Enter for none): ");
+        try {
+            if (service.addCourse(cid, name, credits, capacity, slots)) System.out.println("Course added and saved.");
+            else System.out.println("Course ID already exists.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid input: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Added but failed to save: " + e.getMessage());
+        }
+    }
+
+    private static void viewAllCourses() {
+        if (repo.courseCount() == 0) {
+            System.out.println("No courses found.");
+            return;
+        }
+        ReportQuery q = readReportQuery("course=ID student=ID name=TEXT credits=N..M seats=N..M", "id", "name", "credits", "enrolled", "fill");
+        long start = System.nanoTime();
+        try {
+            report.courses(q);
+        } catch (IOException e) {
+            System.out.println("Failed to list courses: " + e.getMessage());
+        }
+        metrics.record(Metrics.Op.VIEW_COURSES, start);
+    }
+
+    private static void deleteCourse() {
+        System.out.print("Enter Course ID to delete: ");
+        String cid = scanner.nextLine().trim();
+        try {
+            // remove related enrollments and remove from the enrolled students' lists
+            if (service.deleteCourse(cid)) System.out.println("Course and related enrollments deleted.");
+            else System.out.println("Course not found.");
+        } catch (IOException e) {
+            System.out.println("Deleted but failed to save: " + e.getMessage());
+        }
+    }
+
+    private static void updateCourseCapacity() {
+        System.out.print("Enter Course ID: ");
+        String cid = scanner.nextLine().trim();
+        if (findCourseById(cid) == null) {
+            System.out.println("Course not found.");
+            return;
+        }
+        int capacity = readIntSafe("Enter New Capacity (integer): ");
+        try {
+            // extra seats go straight to the waitlist; promotions are journaled as they happen
+            if (service.updateCapacity(cid, capacity)) System.out.println("Capacity updated and saved.");
+            else System.out.println("Course not found.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid input: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Updated but failed to save: " + e.getMessage());
+        }
+    }
+
+    private static void updateCourseSchedule() {
+        System.out.print("Enter Course ID: ");
+        String cid = scanner.nextLine().trim();
+        Course c = findCourseById(cid);
+        if (c == null) {
+            System.out.println("Course not found.");
+            return;
+        }
+        System.out.println("Currently: " + (c.getSlots() == 0 ? "no meeting times" : Schedule.format(c.getSlots())));
+        long slots = readSchedule("Enter Meeting Times (e.g. MoWe9-11 Fr14-16, Enter for none): ");
+        try {
+            // students already enrolled keep their place even if this now overlaps their other courses
+            if (service.updateSchedule(cid, slots)) System.out.println("Meeting times updated and saved.");
+            else System.out.println("Course not found.");
+        } catch (IOException e) {
+            System.out.println("Updated but failed to save: " + e.getMessage());
+        }
+    }
+
+    // Applies to new enrollments; current enrollments are left alone
+    private static void updateEnrollmentRules() {
+        EnrollmentRules rules = repo.getRules();
+        System.out.println("Current rules: " + rules + ".");
+        System.out.print("Enter Maximum Credits per Student (0 = no limit, Enter to keep " + rules.getMaxCredits() + "): ");
+        int maxCredits = rules.getMaxCredits();
+        String line = scanner.nextLine().trim();
+        if (!line.isEmpty()) {
+            try {
+                maxCredits = Integer.parseInt(line);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid integer. Rules unchanged.");
+                return;
+            }
+        }
+        System.out.print("Refuse courses whose meeting times overlap? (y/n, Enter to keep): ");
+        line = scanner.nextLine().trim();
+        boolean reject = line.isEmpty() ? rules.rejectsConflicts() : line.equalsIgnoreCase("y");
+        try {
+            service.setRules(new EnrollmentRules(maxCredits, reject));
+            System.out.println("Rules saved: " + repo.getRules() + ".");
+        } catch (IOException e) {
+            System.out.println("Updated but failed to save: " + e.getMessage());
+        }
+    }
+
+    // Student IDs are checked first; names stay searchable under the new name
+    private static void renameStudentOrCourse() {
+        System.out.print("Enter Student or Course ID: ");
+        String id = scanner.nextLine().trim();
+        boolean student = findStudentById(id) != null;
+        if (!student && findCourseById(id) == null) {
+            System.out.println("No student or course with that ID.");
+            return;
+        }
+        System.out.print("Enter New Name: ");
+        String name = scanner.nextLine().trim();
+        try {
+            boolean renamed = student ? service.renameStudent(id, name) : service.renameCourse(id, name);
+            System.out.println(renamed ? "Renamed and saved." : "No student or course with that ID.");
+        } catch (IOException e) {
+            System.out.println("Renamed but failed to save: " + e.getMessage());
+        }
+    }
+
+    // -------------------- Enrollment operations --------------------
+    private static void enrollStudentInCourse() {
+        System.out.print("Enter Student ID: ");
+        String sid = scanner.nextLine().trim();
+        if (findStudentById(sid) == null) {
+            System.out.println("Student not found. Add student first.");
+            metrics.countResult(EnrollmentEngine.Result.STUDENT_NOT_FOUND);
+            return;
+        }
+        System.out.print("Enter Course ID: ");
+        String cid = scanner.nextLine().trim();
+        try {
+            // capacity and already-enrolled checks happen atomically in the engine
+            EnrollmentEngine.Result result = service.enroll(sid, cid);
+            switch (result) {
+                case ENROLLED: System.out.println("Enrollment successful and saved."); break;
+                case STUDENT_NOT_FOUND: System.out.println("Student not found. Add student first."); break;
+                case COURSE_NOT_FOUND: System.out.println("Course not found. Add course first."); break;
+                case COURSE_FULL: offerWaitlist(sid, cid); break;
+                case CREDIT_LIMIT: case SCHEDULE_CONFLICT: printRuleRefusal(result, sid, cid); break;
+                default: System.out.println("Student already enrolled in this course."); break;
+            }
+        } catch (IOException e) {
+            System.out.println("Enrolled but failed to save: " + e.getMessage());
+        }
+    }
+
+    // Instead of retrying a full course, the student queues and is enrolled when a seat frees up
+    private static void offerWaitlist(String sid, String cid) {
+        System.out.print("Course is full. Join the waitlist? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) return;
+        int priority = readIntSafe("Enter Priority (0 = normal, higher is promoted first): ");
+        try {
+            EnrollmentEngine.Result result = service.joinWaitlist(sid, cid, priority);
+            switch (result) {
+                case WAITLISTED: System.out.println("Added to waitlist (" + repo.waitlistSize(cid) + " waiting)."); break;
+                case ENROLLED: System.out.println("A seat opened up: enrollment successful and saved."); break; // freed in the meantime
+                case ALREADY_WAITLISTED: System.out.println("Student is already on this waitlist."); break;
+                case ALREADY_ENROLLED: System.out.println("Student already enrolled in this course."); break;
+                case CREDIT_LIMIT: case SCHEDULE_CONFLICT: printRuleRefusal(result, sid, cid); break;
+                default: System.out.println("Student or course no longer exists."); break;
+            }
+        } catch (IOException e) {
+            System.out.println("Enrolled but failed to save: " + e.getMessage());
+        }
+    }
+
+    private static void printRuleRefusal(EnrollmentEngine.Result result, String sid, String cid) {
+        Course c = findCourseById(cid);
+        if (c == null) return;
+        if (result == EnrollmentEngine.Result.SCHEDULE_CONFLICT) {
+            System.out.println("Schedule conflict: " + Schedule.format(c.getSlots()) + " overlaps the student's other courses ("
+                    + Schedule.format(repo.studentSlots(sid)) + ").");
+        } else {
+            System.out.println("Credit limit: the student has " + repo.studentCredits(sid) + " credits, this course adds "
+                    + c.getCredits() + " and the limit is " + repo.getRules().getMaxCredits() + ".");
+        }
+    }
+
+    private static void viewWaitlist() {
+        System.out.print("Enter Course ID: ");
+        String cid = scanner.nextLine().trim();
+        long start = System.nanoTime();
+        Waitlist w = repo.findWaitlist(cid);
+        if (findCourseById(cid) == null) {
+            System.out.println("Course not found.");
+        } else if (w == null || w.size() == 0) {
+            System.out.println("Nobody is waiting for this course.");
+        } else {
+            int position = 1;
+            for (Waitlist.Entry e : w.entries()) {
+                System.out.printf("%d. %s (priority %d)%n", position++, e.getStudentId(), e.getPriority());
+            }
+        }
+        metrics.record(Metrics.Op.VIEW_WAITLIST, start);
+    }
+
+    private static void viewAllEnrollments() {
+        if (repo.enrollmentCount() == 0) {
+            System.out.println("No enrollments.");
+            return;
+        }
+        ReportQuery q = readReportQuery("course=ID student=ID", "student", "course");
+        long start = System.nanoTime();
+        try {
+            report.enrollments(q);
+        } catch (IOException e) {
+            System.out.println("Failed to list enrollments: " + e.getMessage());
+        }
+        metrics.record(Metrics.Op.VIEW_ENROLLMENTS, start);
+    }
+
+    private static void dropStudentFromCourse() {
+        System.out.print("Enter Student ID: ");
+        String sid = scanner.nextLine().trim();
+        if (findStudentById(sid) == null) {
+            System.out.println("Student not found.");
+            metrics.countResult(EnrollmentEngine.Result.STUDENT_NOT_FOUND);
+            return;
+        }
+        System.out.print("Enter Course ID to drop: ");
+        String cid = scanner.nextLine().trim();
+        try {
+            switch (service.drop(sid, cid)) {
+                case DROPPED: System.out.println("Dropped and saved."); break;
+                case STUDENT_NOT_FOUND: System.out.println("Student not found."); break;
+                default: System.out.println("That enrollment does not exist."); break;
+            }
+        } catch (IOException e) {
+            System.out.println("Dropped but failed to save: " + e.getMessage());
+        }
+    }
+
+    // -------------------- Utility --------------------
+    private static Student findStudentById(String sid) {
+        return repo.findStudent(sid);
+    }
+
+    private static Course findCourseById(String cid) {
+        return repo.findCourse(cid);
+    }
+
+    private static long readSchedule(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            try {
+                return Schedule.parse(scanner.nextLine());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid meeting times: " + e.getMessage() + ". Try again.");
+            }
+        }
+    }
+
+    private static int readIntSafe(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String line = scanner.nextLine().trim();
+            try {
+                return Integer.parseInt(line);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid integer. Try again.");
+            }
+        }
+    }
+
+    // Filter/sort/page options for a listing; Enter lists everything. IDs ending in '*' match as a prefix,
+    // names as a word prefix (otherwise anywhere in the name).
+    private static ReportQuery readReportQuery(String filters, String... sorts) {
+        while (true) {
+            System.out.print("Options [" + filters + " sort=" + String.join("|", sorts) + " size=N page=N] (Enter for all): ");
+            String line = scanner.nextLine().trim();
+            try {
+                return ReportQuery.parse(line, sorts);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid options: " + e.getMessage() + ". Try again.");
+            }
+        }
+    }
+
+    private static void exportEnrollmentsCsv() {
+        CsvExporter exporter = readExportOptions();
+        Path out = Paths.get(exporter.defaultTarget("export_enrollments"));
+        try {
+            long rows = exporter.export(out);
+            System.out.println("Exported " + rows + " rows to " + out.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Failed to export: " + e.getMessage());
+        }
+    }
+
+    // Enter gives the plain student_id,course_id file
+    private static CsvExporter readExportOptions() {
+        while (true) {
+            System.out.print("Options [course=ID student=ID joined gzip split] (Enter for plain CSV): ");
+            String line = scanner.nextLine().trim();
+            try {
+                return store.exporter().options(line);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid options: " + e.getMessage() + ". Try again.");
+            }
+        }
+    }
+
+    // -------------------- Metrics --------------------
+    // Totals are kept current as changes happen, so this never scans the enrollments
+    private static void viewStatistics() {
+        long start = System.nanoTime();
+        EnrollmentStats.Totals t = repo.totals();
+        System.out.printf("Students: %d | Courses: %d | Enrollments: %d%n", t.getStudents(), t.getCourses(), t.getEnrollments());
+        System.out.printf("Seats: %d (%.1f%% taken) | Full courses: %d | Waiting: %d | Enrolled credits: %d%n",
+                t.getSeats(), t.getFillRate() * 100, t.getFullCourses(), t.getWaiting(), t.getCredits());
+        List<String> busiest = repo.busiestCourses(10);
+        if (!busiest.isEmpty()) System.out.println("Most in demand:");
+        for (String cid : busiest) {
+            Course c = repo.findCourse(cid);
+            if (c == null) continue;
+            System.out.printf("  %-10s %-30s %d/%d enrolled, %d waiting%n", cid, c.getCourseName(),
+                    repo.enrolledCount(cid), c.getCapacity(), repo.waitlistSize(cid));
+        }
+        metrics.record(Metrics.Op.VIEW_STATISTICS, start);
+        System.out.print("Check against a full recount? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) return;
+        List<String> problems = EnrollmentStats.verify(repo);
+        if (problems.isEmpty()) System.out.println("Statistics match the recount.");
+        for (String p : problems) System.out.println("Mismatch: " + p);
+    }
+
+    private static void viewMetrics() {
+        System.out.print(metrics.summary(repo));
+    }
+
+    private static void exportMetrics() {
+        try {
+            metrics.writeExposition(METRICS_FILE, repo);
+            System.out.println("Metrics written to " + METRICS_FILE.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Failed to write metrics: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+// MalformedRecordException.java
+// Thrown when a data file line cannot be parsed; the loader reports it with the line number.
+
+package enrollmentsystem;
+
+public class MalformedRecordException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    public MalformedRecordException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,152 @@
+// Metrics.java
+// Latency histograms and counters for menu operations and file I/O, plus enrollment outcomes.
+// Everything is preallocated and indexed by enum ordinal, so recording never allocates.
+
+package enrollmentsystem;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Metrics {
+    public enum Op {
+        ADD_STUDENT, VIEW_STUDENTS, DELETE_STUDENT,
+        ADD_COURSE, VIEW_COURSES, DELETE_COURSE,
+        ENROLL, VIEW_ENROLLMENTS, DROP,
+        EXPORT, LOAD, SAVE, JOURNAL_APPEND,
+        JOIN_WAITLIST, PROMOTE, UPDATE_CAPACITY, VIEW_WAITLIST,
+        FLUSH, RENAME, UPDATE_SCHEDULE, IMPORT, VIEW_STATISTICS
+    }
+
+    private final Histogram[] latency = new Histogram[Op.values().length];
+    private final LongAdder[] results = new LongAdder[EnrollmentEngine.Result.values().length];
+    private final Histogram savedBytes = new Histogram();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    public Metrics() {
+        for (int i = 0; i < latency.length; i++) latency[i] = new Histogram();
+        for (int i = 0; i < results.length; i++) results[i] = new LongAdder();
+    }
+
+    // Typical use: long start = System.nanoTime(); ...work...; metrics.record(Op.X, start);
+    public void record(Op op, long startNanos) {
+        latency[op.ordinal()].recordSince(startNanos);
+    }
+
+    public void countResult(EnrollmentEngine.Result result) {
+        results[result.ordinal()].increment();
+    }
+
+    // Total bytes written by one save (all data files together)
+    public void recordSave(long bytes) {
+        savedBytes.record(bytes);
+        bytesWritten.add(bytes);
+    }
+
+    // Bytes written outside full saves: journal records, exports
+    public void addBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    public Histogram latency(Op op) {
+        return latency[op.ordinal()];
+    }
+
+    public long resultCount(EnrollmentEngine.Result result) {
+        return results[result.ordinal()].sum();
+    }
+
+    // Human-readable table for the console
+    public String summary(EnrollmentRepository repo) {
+        StringWriter out = new StringWriter();
+        PrintWriter w = new PrintWriter(out);
+        w.printf("%-18s %10s %12s %12s %12s%n", "Operation", "Count", "p50 (ms)", "p99 (ms)", "max (ms)");
+        for (Op op : Op.values()) {
+            Histogram h = latency(op);
+            if (h.count() == 0) continue;
+            w.printf("%-18s %10d %12.3f %12.3f %12.3f%n", label(op), h.count(),
+                    millis(h.percentile(0.50)), millis(h.percentile(0.99)), millis(h.max()));
+        }
+        w.println("Enrollment requests:");
+        for (EnrollmentEngine.Result r : EnrollmentEngine.Result.values()) {
+            long n = resultCount(r);
+            if (n > 0) w.printf("  %-18s %d%n", label(r), n);
+        }
+        w.printf("Saves: %d | bytes per save p50: %d, max: %d | total bytes written: %d%n",
+                savedBytes.count(), savedBytes.percentile(0.50), savedBytes.max(), bytesWritten.sum());
+        w.printf("Dataset: %d students, %d courses, %d enrollments%n",
+                repo.studentCount(), repo.courseCount(), repo.enrollmentCount());
+        w.flush();
+        return out.toString();
+    }
+
+    // Prometheus text exposition format
+    public String exposition(EnrollmentRepository repo) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# HELP enrollment_operation_seconds Latency of menu operations and file I/O.\n");
+        sb.append("# TYPE enrollment_operation_seconds summary\n");
+        for (Op op : Op.values()) {
+            Histogram h = latency(op);
+            String l = "op=\"" + label(op) + "\"";
+            sample(sb, "enrollment_operation_seconds", l + ",quantile=\"0.5\"", seconds(h.percentile(0.50)));
+            sample(sb, "enrollment_operation_seconds", l + ",quantile=\"0.99\"", seconds(h.percentile(0.99)));
+            sample(sb, "enrollment_operation_seconds_sum", l, seconds(h.sum()));
+            sample(sb, "enrollment_operation_seconds_count", l, h.count());
+        }
+        sb.append("# HELP enrollment_operation_seconds_max Slowest observed operation.\n");
+        sb.append("# TYPE enrollment_operation_seconds_max gauge\n");
+        for (Op op : Op.values()) {
+            sample(sb, "enrollment_operation_seconds_max", "op=\"" + label(op) + "\"", seconds(latency(op).max()));
+        }
+        sb.append("# HELP enrollment_requests_total Enroll and drop requests by outcome.\n");
+        sb.append("# TYPE enrollment_requests_total counter\n");
+        for (EnrollmentEngine.Result r : EnrollmentEngine.Result.values()) {
+            sample(sb, "enrollment_requests_total", "result=\"" + label(r) + "\"", resultCount(r));
+        }
+        sb.append("# HELP enrollment_save_bytes Bytes written per full save.\n");
+        sb.append("# TYPE enrollment_save_bytes summary\n");
+        sample(sb, "enrollment_save_bytes", "quantile=\"0.5\"", savedBytes.percentile(0.50));
+        sample(sb, "enrollment_save_bytes", "quantile=\"0.99\"", savedBytes.percentile(0.99));
+        sample(sb, "enrollment_save_bytes_sum", null, savedBytes.sum());
+        sample(sb, "enrollment_save_bytes_count", null, savedBytes.count());
+        sb.append("# HELP enrollment_written_bytes_total All bytes written to data, journal and export files.\n");
+        sb.append("# TYPE enrollment_written_bytes_total counter\n");
+        sample(sb, "enrollment_written_bytes_total", null, bytesWritten.sum());
+        sb.append("# HELP enrollment_dataset_size Records currently held in memory.\n");
+        sb.append("# TYPE enrollment_dataset_size gauge\n");
+        sample(sb, "enrollment_dataset_size", "kind=\"students\"", repo.studentCount());
+        sample(sb, "enrollment_dataset_size", "kind=\"courses\"", repo.courseCount());
+        sample(sb, "enrollment_dataset_size", "kind=\"enrollments\"", repo.enrollmentCount());
+        return sb.toString();
+    }
+
+    public void writeExposition(Path file, EnrollmentRepository repo) throws IOException {
+        Files.write(file, exposition(repo).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name);
+        if (labels != null) sb.append('{').append(labels).append('}');
+        sb.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) sb.append((long) value);
+        else sb.append(String.format(Locale.ROOT, "%.9f", value));
+        sb.append('\n');
+    }
+
+    private static String label(Enum<?> e) {
+        return e.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
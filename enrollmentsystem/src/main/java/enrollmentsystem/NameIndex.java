@@ -0,0 +1,147 @@
+// NameIndex.java
+// Case-insensitive name search over interned int IDs, without scanning every record.
+//   prefix:    a sorted map keyed by the name and by its tail from each later word ("reagan gaor",
+//              "gaor"), so "rea" finds "Ralfh Reagan Gaor" with one range lookup.
+//   substring: a trigram index; the rarest trigram of the query gives the candidates, which are
+//              then checked against the stored name. Queries under 3 characters search by prefix.
+// The index is built the first time it is searched (until then updates are no-ops), so a
+// repository that is never searched pays nothing at load time. The build collects the prefix keys
+// in a hash map and creates the sorted map from them in one pass, instead of one insert per key.
+// Updates are serialized on the index; searches run concurrently with them and see each name
+// either before or after a change.
+
+package enrollmentsystem;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ObjIntConsumer;
+
+public class NameIndex {
+    private static final int GRAM = 3;
+
+    // Feeds every (name, id) pair to the index when it is first built
+    public interface Source {
+        void forEach(ObjIntConsumer<String> sink);
+    }
+
+    private volatile ConcurrentSkipListMap<String, IntSet> words = new ConcurrentSkipListMap<>();
+    private final Map<String, IntSet> grams = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16]; // normalized name by ID, null if absent
+    private volatile boolean built;
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    // Indexes everything the source lists; later changes arrive through put and remove
+    public synchronized void build(Source source) {
+        if (built) return;
+        Map<String, IntSet> keys = new HashMap<>();
+        source.forEach((name, id) -> index(name, id, keys));
+        words = new ConcurrentSkipListMap<>(new TreeMap<>(keys));
+        built = true;
+    }
+
+    // Adds or renames
+    public synchronized void put(int id, String name) {
+        if (!built) return;
+        unindex(id);
+        index(name, id, words);
+    }
+
+    public synchronized void remove(int id) {
+        if (built) unindex(id);
+    }
+
+    public synchronized void clear() {
+        words = new ConcurrentSkipListMap<>();
+        grams.clear();
+        names = new String[16];
+        built = false;
+    }
+
+    // IDs whose name, or any word of it, starts with text
+    public int[] prefix(String text) {
+        String p = normalize(text);
+        if (p.isEmpty()) return new int[0];
+        IntSet found = new IntSet(16);
+        // every key starting with p sorts between p and p + the largest char
+        for (IntSet ids : words.subMap(p, true, p + Character.MAX_VALUE, true).values()) {
+            for (int id : ids.toArray()) found.add(id);
+        }
+        return found.toArray();
+    }
+
+    // IDs whose name contains text
+    public int[] contains(String text) {
+        String q = normalize(text);
+        if (q.length() < GRAM) return prefix(q);
+        IntSet rarest = null;
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            IntSet ids = grams.get(q.substring(i, i + GRAM));
+            if (ids == null) return new int[0];
+            if (rarest == null || ids.size() < rarest.size()) rarest = ids;
+        }
+        String[] current = names;
+        int[] candidates = rarest.toArray();
+        int n = 0;
+        for (int id : candidates) {
+            String name = id < current.length ? current[id] : null;
+            if (name != null && name.contains(q)) candidates[n++] = id;
+        }
+        return Arrays.copyOf(candidates, n);
+    }
+
+    private void index(String name, int id, Map<String, IntSet> words) {
+        String norm = normalize(name);
+        String[] current = names;
+        if (id >= current.length) current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+        current[id] = norm;
+        names = current;
+        for (String key : keys(norm)) words.computeIfAbsent(key, k -> new IntSet(2)).add(id);
+        for (int i = 0; i + GRAM <= norm.length(); i++) {
+            grams.computeIfAbsent(norm.substring(i, i + GRAM), k -> new IntSet(2)).add(id);
+        }
+    }
+
+    private void unindex(int id) {
+        String[] current = names;
+        if (id >= current.length || current[id] == null) return;
+        String norm = current[id];
+        current[id] = null;
+        for (String key : keys(norm)) remove(words, key, id);
+        // a gram repeated in the name is removed on its first occurrence; later ones find nothing
+        for (int i = 0; i + GRAM <= norm.length(); i++) remove(grams, norm.substring(i, i + GRAM), id);
+    }
+
+    private static void remove(Map<String, IntSet> map, String key, int id) {
+        IntSet ids = map.get(key);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.size() == 0) map.remove(key);
+    }
+
+    // The whole name plus its tail from each later word on
+    private static List<String> keys(String norm) {
+        List<String> keys = new ArrayList<>(4);
+        if (!norm.isEmpty()) keys.add(norm);
+        for (int i = norm.indexOf(' '); i >= 0; i = norm.indexOf(' ', i + 1)) {
+            if (i + 1 < norm.length()) keys.add(norm.substring(i + 1));
+        }
+        return keys;
+    }
+
+    // Lower case with runs of whitespace collapsed to one space; strip() rather than trim(), which
+    // leaves Unicode spaces such as U+3000 at the start for the loop to find with nothing before them
+    static String normalize(String s) {
+        String lower = s.strip().toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char ch = lower.charAt(i);
+            if (!Character.isWhitespace(ch)) sb.append(ch);
+            else if (sb.charAt(sb.length() - 1) != ' ') sb.append(' ');
+        }
+        return sb.toString();
+    }
+}
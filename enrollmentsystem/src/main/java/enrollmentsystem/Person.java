@@ -1,9 +1,11 @@
 // Person.java
 // Abstract superclass demonstrating Abstraction & Encapsulation
 
+package enrollmentsystem;
+
 public abstract class Person {
     private String id;
-    private String name;
+    private volatile String name; // renamed while snapshots and listings read it
 
     public Person(String id, String name) {
         this.id = id;
@@ -0,0 +1,114 @@
+// RangeIndex.java
+// Ordered index of one int attribute (credits, open seats, course demand) over interned int IDs, for range
+// queries without a scan. Each entry is a single long, value in the high half and ID in the low
+// half, in a concurrent skip list: a range is one subSet walk.
+// update() reads the attribute itself, under the ID's lock stripe, so whichever update runs last
+// records the latest value even when several threads change the same course at once.
+// Like NameIndex it is built by the first query. Updates are tracked from the moment the build
+// starts, so a change made while it runs is never lost.
+
+package enrollmentsystem;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.IntSupplier;
+
+public class RangeIndex {
+    // Lists every ID with its attribute when the index is first built
+    public interface Source {
+        void forEach(Sink sink);
+    }
+
+    public interface Sink {
+        void accept(int id, IntSupplier value);
+    }
+
+    private final NavigableSet<Long> entries = new ConcurrentSkipListSet<>();
+    private final Map<Integer, Integer> values = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[64];
+    private volatile boolean tracking;
+    private volatile boolean built;
+
+    public RangeIndex() {
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new Object();
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    // False until the first build starts; until then updates are ignored
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public synchronized void build(Source source) {
+        if (built) return;
+        tracking = true;
+        source.forEach(this::update);
+        built = true;
+    }
+
+    // (Re)indexes id under the attribute's current value
+    public void update(int id, IntSupplier value) {
+        if (!tracking) return;
+        synchronized (stripes[id & (stripes.length - 1)]) {
+            int v = value.getAsInt();
+            Integer old = values.put(id, v);
+            if (old != null) {
+                if (old == v) return;
+                entries.remove(key(old, id));
+            }
+            entries.add(key(v, id));
+        }
+    }
+
+    public void remove(int id) {
+        if (!tracking) return;
+        synchronized (stripes[id & (stripes.length - 1)]) {
+            Integer old = values.remove(id);
+            if (old != null) entries.remove(key(old, id));
+        }
+    }
+
+    public synchronized void clear() {
+        tracking = false;
+        built = false;
+        entries.clear();
+        values.clear();
+    }
+
+    // IDs with min <= value <= max, in value order
+    public int[] range(int min, int max) {
+        if (min > max) return new int[0];
+        int[] ids = new int[16];
+        int n = 0;
+        for (long k : entries.subSet(key(min, 0), true, key(max, -1), true)) {
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n++] = (int) k;
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    // Up to n IDs with the highest values, highest first
+    public int[] top(int n) {
+        int[] ids = new int[Math.max(0, n)];
+        int i = 0;
+        for (Iterator<Long> it = entries.descendingIterator(); i < ids.length && it.hasNext(); ) ids[i++] = (int) (long) it.next();
+        return Arrays.copyOf(ids, i);
+    }
+
+    // Current value for id, or null if it is not indexed
+    public Integer valueOf(int id) {
+        return values.get(id);
+    }
+
+    // Signed value in the high half keeps negative values (over-full courses) in order
+    private static long key(int value, int id) {
+        return ((long) value << 32) | (id & 0xffffffffL);
+    }
+}
@@ -0,0 +1,101 @@
+// RecordReader.java
+// Streams a text data file line by line through a buffered NIO channel, so memory stays bounded
+// regardless of file size. Malformed lines are reported with their line number and skipped.
+
+package enrollmentsystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class RecordReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public interface LineHandler {
+        // line is a reused buffer: copy anything that must outlive the call
+        void line(CharSequence line, int lineNumber);
+    }
+
+    private RecordReader() {
+    }
+
+    // Calls handler for every non-blank line; returns the number of lines it accepted
+    public static int read(Path file, LineHandler handler) throws IOException {
+        if (!Files.exists(file)) return 0;
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        LineSplitter splitter = new LineSplitter(file, handler);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            boolean eof = false;
+            while (!eof || bytes.position() > 0) {
+                if (!eof && channel.read(bytes) < 0) eof = true;
+                bytes.flip();
+                decoder.decode(bytes, chars, eof);
+                bytes.compact();
+                splitter.consume(chars);
+            }
+            decoder.flush(chars);
+            splitter.consume(chars);
+        }
+        splitter.finish();
+        return splitter.accepted;
+    }
+
+    private static class LineSplitter {
+        private final Path file;
+        private final LineHandler handler;
+        private final StringBuilder line = new StringBuilder(128);
+        private int lineNumber;
+        private int accepted;
+
+        LineSplitter(Path file, LineHandler handler) {
+            this.file = file;
+            this.handler = handler;
+        }
+
+        void consume(CharBuffer chars) {
+            chars.flip();
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (c == '\n') emit();
+                else if (c != '\r') line.append(c);
+            }
+            chars.clear();
+        }
+
+        void finish() {
+            if (line.length() > 0) emit();
+        }
+
+        private void emit() {
+            lineNumber++;
+            if (!isBlank(line)) {
+                try {
+                    handler.line(line, lineNumber);
+                    accepted++;
+                } catch (MalformedRecordException e) {
+                    System.out.println(file.getFileName() + " line " + lineNumber + ": " + e.getMessage() + " (skipped)");
+                }
+            }
+            line.setLength(0);
+        }
+
+        private static boolean isBlank(CharSequence s) {
+            for (int i = 0; i < s.length(); i++) {
+                if (!Character.isWhitespace(s.charAt(i))) return false;
+            }
+            return true;
+        }
+    }
+}
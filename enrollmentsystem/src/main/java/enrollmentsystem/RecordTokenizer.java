@@ -0,0 +1,89 @@
+// RecordTokenizer.java
+// Hand-written field tokenizer over a reusable line buffer. Unlike String.split it allocates no
+// arrays or intermediate strings: only the returned field values, and nothing at all for numbers.
+
+package enrollmentsystem;
+
+public class RecordTokenizer {
+    private CharSequence line;
+    private int pos;
+    private int end;
+
+    public RecordTokenizer() {
+        reset("");
+    }
+
+    public RecordTokenizer(CharSequence line) {
+        reset(line);
+    }
+
+    public RecordTokenizer reset(CharSequence line) {
+        this.line = line;
+        this.pos = 0;
+        this.end = line.length();
+        return this;
+    }
+
+    // True while there is a field left, including an empty one after a trailing separator
+    public boolean hasMore() {
+        return pos <= end;
+    }
+
+    // Next field up to sep (or end of line), trimmed; "" once the line is exhausted
+    public String next(char sep) {
+        if (pos > end) return "";
+        int stop = indexOf(sep);
+        String s = trimmed(pos, stop);
+        pos = stop + 1;
+        return s;
+    }
+
+    // Everything left on the line as one field, so the last column may contain separators
+    public String rest() {
+        if (pos > end) return "";
+        String s = trimmed(pos, end);
+        pos = end + 1;
+        return s;
+    }
+
+    // Parses the next field as an int directly from the characters
+    public int nextInt(char sep, String fieldName) {
+        if (pos > end) throw new MalformedRecordException("missing " + fieldName);
+        int stop = indexOf(sep);
+        int a = pos, b = stop;
+        pos = stop + 1;
+        while (a < b && Character.isWhitespace(line.charAt(a))) a++;
+        while (b > a && Character.isWhitespace(line.charAt(b - 1))) b--;
+        if (a == b) throw new MalformedRecordException("missing " + fieldName);
+        boolean negative = line.charAt(a) == '-';
+        int i = (negative || line.charAt(a) == '+') ? a + 1 : a;
+        if (i == b) throw invalid(fieldName, a, b);
+        long value = 0;
+        for (; i < b; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') throw invalid(fieldName, a, b);
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE + 1L) throw invalid(fieldName, a, b);
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw invalid(fieldName, a, b);
+        return (int) value;
+    }
+
+    private int indexOf(char sep) {
+        for (int i = pos; i < end; i++) {
+            if (line.charAt(i) == sep) return i;
+        }
+        return end;
+    }
+
+    private String trimmed(int a, int b) {
+        while (a < b && Character.isWhitespace(line.charAt(a))) a++;
+        while (b > a && Character.isWhitespace(line.charAt(b - 1))) b--;
+        return a == b ? "" : line.subSequence(a, b).toString();
+    }
+
+    private MalformedRecordException invalid(String fieldName, int a, int b) {
+        return new MalformedRecordException("invalid " + fieldName + " '" + line.subSequence(a, b) + "'");
+    }
+}
@@ -0,0 +1,205 @@
+// ReportQuery.java
+// Filter, sort and paging options for the view reports, parsed from "key=value" words,
+// e.g. "course=C1 sort=name size=50 page=2". IDs match exactly, or as a prefix when they end in '*'.
+// name= searches names: "name=rea" anywhere in the name, "name=rea*" at the start of a word;
+// quote values with spaces (name="ralfh rea*"). credits= and seats= (open seats) take a number
+// or a range: 3, 2..4, 1.. or ..0.
+
+package enrollmentsystem;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ReportQuery {
+    private static final Pattern WORD = Pattern.compile("([^\\s=]+)=(\"[^\"]*\"|\\S*)|\\S+");
+
+    // Inclusive bounds; open ends are Integer.MIN_VALUE / MAX_VALUE
+    public static final class Range {
+        private final int min;
+        private final int max;
+
+        public Range(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public boolean contains(int value) {
+            return value >= min && value <= max;
+        }
+    }
+
+    private String course;
+    private String student;
+    private String name;
+    private Range credits;
+    private Range seats;
+    private String sort;
+    private int page = 1;
+    private int pageSize; // 0 = everything on one page
+
+    public static ReportQuery all() {
+        return new ReportQuery();
+    }
+
+    // Throws IllegalArgumentException with a readable message for unknown keys, sort orders or bad numbers
+    public static ReportQuery parse(String line, String... sorts) {
+        Map<String, String> options = new LinkedHashMap<>();
+        Matcher m = WORD.matcher(line);
+        while (m.find()) {
+            String value = m.group(2);
+            if (value != null && value.startsWith("\"")) value = value.substring(1, value.length() - 1);
+            if (value == null || value.isEmpty()) throw new IllegalArgumentException("expected key=value but got '" + m.group() + "'");
+            options.put(m.group(1).toLowerCase(), value);
+        }
+        return fromOptions(options, sorts);
+    }
+
+    // Same keys as parse, already split (e.g. URL query parameters)
+    public static ReportQuery fromOptions(Map<String, String> options, String... sorts) {
+        ReportQuery q = new ReportQuery();
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            String key = option.getKey();
+            String value = option.getValue();
+            switch (key) {
+                case "course": q.course = value; break;
+                case "student": q.student = value; break;
+                case "name": q.name = value; break;
+                case "credits": q.credits = range(key, value); break;
+                case "seats": q.seats = range(key, value); break;
+                case "sort": q.sort = value.toLowerCase(); break;
+                case "page": q.page = positive(key, value); break;
+                case "size": q.pageSize = positive(key, value); break;
+                default: throw new IllegalArgumentException("unknown option '" + key + "'");
+            }
+        }
+        if (q.sort != null && sorts.length > 0 && !Arrays.asList(sorts).contains(q.sort)) {
+            throw new IllegalArgumentException("sort must be one of " + String.join(", ", sorts));
+        }
+        return q;
+    }
+
+    private static int positive(String key, String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0) return n;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(key + " must be a positive integer");
+    }
+
+    // "n", "a..b", "a.." or "..b"
+    private static Range range(String key, String value) {
+        int dots = value.indexOf("..");
+        try {
+            if (dots < 0) {
+                int n = Integer.parseInt(value.trim());
+                return new Range(n, n);
+            }
+            String lo = value.substring(0, dots).trim();
+            String hi = value.substring(dots + 2).trim();
+            if (lo.isEmpty() && hi.isEmpty()) throw new NumberFormatException();
+            return new Range(lo.isEmpty() ? Integer.MIN_VALUE : Integer.parseInt(lo), hi.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(hi));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a number or a range like 2..4");
+        }
+    }
+
+    public ReportQuery course(String course) {
+        this.course = course;
+        return this;
+    }
+
+    public ReportQuery student(String student) {
+        this.student = student;
+        return this;
+    }
+
+    public ReportQuery name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public ReportQuery credits(int min, int max) {
+        this.credits = new Range(min, max);
+        return this;
+    }
+
+    public ReportQuery seats(int min, int max) {
+        this.seats = new Range(min, max);
+        return this;
+    }
+
+    public ReportQuery sort(String sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    public ReportQuery page(int page, int pageSize) {
+        this.page = page;
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public String getCourse() {
+        return course;
+    }
+
+    public String getStudent() {
+        return student;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Range getCredits() {
+        return credits;
+    }
+
+    public Range getSeats() {
+        return seats;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    // An exact ID (usable as an index lookup) rather than a prefix pattern
+    static boolean isExact(String pattern) {
+        return pattern != null && !pattern.endsWith("*");
+    }
+
+    // Same rules as the name index, for checking a candidate row
+    static boolean nameMatches(String pattern, String name) {
+        if (pattern == null) return true;
+        String norm = NameIndex.normalize(name);
+        if (!pattern.endsWith("*")) return norm.contains(NameIndex.normalize(pattern));
+        String p = NameIndex.normalize(pattern.substring(0, pattern.length() - 1));
+        return norm.startsWith(p) || norm.contains(" " + p);
+    }
+
+    static boolean matches(String pattern, String id) {
+        if (pattern == null) return true;
+        return isExact(pattern) ? pattern.equals(id) : id.startsWith(pattern.substring(0, pattern.length() - 1));
+    }
+}
@@ -0,0 +1,320 @@
+// ReportRenderer.java
+// Renders the student, course and enrollment listings through one large buffer instead of a
+// printf per row. Rows can be filtered, sorted and paged (see ReportQuery); a sorted page only
+// keeps the rows up to the end of that page in a bounded heap, so page 1 of a million rows is cheap.
+// The same reports can be rendered as JSON for the HTTP API.
+// Each report reads a snapshot (EnrollmentSnapshot), so its rows, counts and totals agree with
+// each other even while enrollments go on, and it never holds up a change for long.
+
+package enrollmentsystem;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class ReportRenderer {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum Format { TEXT, JSON }
+
+    private interface RowWriter<T> {
+        void write(T row) throws IOException;
+    }
+
+    private final EnrollmentRepository repo;
+    private EnrollmentView view; // the open report's snapshot
+    private final Writer out;
+    private final Format format;
+    private final StringBuilder row = new StringBuilder(); // JSON row being built
+    private boolean firstRow;
+
+    public ReportRenderer(EnrollmentRepository repo, OutputStream out) {
+        this(repo, out, Format.TEXT);
+    }
+
+    // JSON is always UTF-8: {"rows":[...],"total":n,"page":p,"pages":n}
+    public ReportRenderer(EnrollmentRepository repo, OutputStream out, Format format) {
+        this.repo = repo;
+        this.format = format;
+        Charset charset = format == Format.JSON ? StandardCharsets.UTF_8 : Charset.defaultCharset();
+        this.out = new BufferedWriter(new OutputStreamWriter(out, charset), BUFFER_SIZE);
+    }
+
+    // Each report returns the number of matching rows (all pages).
+    // Unknown sort keys throw IllegalArgumentException before anything is written.
+
+    // sort=id|name|courses (most courses first); course= lists only students in matching courses.
+    // An exact course or a name= search reads its index entries instead of scanning every student;
+    // candidates are re-checked by the filter.
+    public int students(ReportQuery q) throws IOException {
+        Comparator<Student> order = studentOrder(q.getSort());
+        String course = q.getCourse();
+        try (EnrollmentSnapshot snap = repo.snapshot()) {
+            view = snap;
+            Iterable<Student> rows = view.getStudents();
+            if (ReportQuery.isExact(course)) {
+                rows = lookup(view.courseMembers(course), view::findStudent);
+            } else if (q.getName() != null) {
+                rows = lookup(view.searchStudents(q.getName()), view::findStudent);
+            }
+            Predicate<Student> filter = s -> ReportQuery.matches(q.getStudent(), s.getStudentId())
+                    && ReportQuery.nameMatches(q.getName(), s.getName())
+                    && (course == null || anyMatch(course, view.studentCourses(s.getStudentId())));
+            return render(rows, filter, order, q, this::writeStudent);
+        }
+    }
+
+    // sort=id|name|credits|enrolled|fill (fullest first); student= lists only courses they take.
+    // Enrolled counts are the sizes of the snapshot's member sets.
+    // Candidates come from the first index that applies: the student's courses, name, open seats, credits.
+    public int courses(ReportQuery q) throws IOException {
+        Comparator<Course> order = courseOrder(q.getSort());
+        String student = q.getStudent();
+        ReportQuery.Range credits = q.getCredits();
+        ReportQuery.Range seats = q.getSeats();
+        try (EnrollmentSnapshot snap = repo.snapshot()) {
+            view = snap;
+            Iterable<Course> rows = view.getCourses();
+            if (ReportQuery.isExact(student)) {
+                rows = lookup(view.studentCourses(student), view::findCourse);
+            } else if (q.getName() != null) {
+                rows = lookup(view.searchCourses(q.getName()), view::findCourse);
+            } else if (seats != null) {
+                rows = lookup(view.coursesByOpenSeats(seats.getMin(), seats.getMax()), view::findCourse);
+            } else if (credits != null) {
+                rows = lookup(view.coursesByCredits(credits.getMin(), credits.getMax()), view::findCourse);
+            }
+            Predicate<Course> filter = c -> ReportQuery.matches(q.getCourse(), c.getCourseId())
+                    && ReportQuery.nameMatches(q.getName(), c.getCourseName())
+                    && (credits == null || credits.contains(c.getCredits()))
+                    && (seats == null || seats.contains(c.getCapacity() - view.enrolledCount(c.getCourseId())))
+                    && (student == null || anyMatch(student, view.courseMembers(c.getCourseId())));
+            return render(rows, filter, order, q, this::writeCourse);
+        }
+    }
+
+    // sort=student|course; an exact course or student ID reads just that index entry
+    public int enrollments(ReportQuery q) throws IOException {
+        Comparator<Enrollment> order = enrollmentOrder(q.getSort());
+        try (EnrollmentSnapshot snap = repo.snapshot()) {
+            view = snap;
+            Iterable<Enrollment> rows;
+            if (ReportQuery.isExact(q.getCourse())) {
+                rows = pairs(view.courseMembers(q.getCourse()), q.getCourse(), false);
+            } else if (ReportQuery.isExact(q.getStudent())) {
+                rows = pairs(view.studentCourses(q.getStudent()), q.getStudent(), true);
+            } else {
+                rows = view.getEnrollments();
+            }
+            Predicate<Enrollment> filter = e -> ReportQuery.matches(q.getCourse(), e.getCourseId())
+                    && ReportQuery.matches(q.getStudent(), e.getStudentId());
+            return render(rows, filter, order, q, this::writeEnrollment);
+        }
+    }
+
+    private <T> int render(Iterable<T> rows, Predicate<T> filter, Comparator<T> order, ReportQuery q, RowWriter<T> writer) throws IOException {
+        int size = q.getPageSize();
+        long from = size == 0 ? 0 : (long) (q.getPage() - 1) * size;
+        long to = size == 0 ? Long.MAX_VALUE : from + size;
+        int total = 0;
+        firstRow = true;
+        if (format == Format.JSON) out.write("{\"rows\":[");
+        if (order == null) {
+            // unsorted: stream in index order, writing only the rows on the page
+            for (T row : rows) {
+                if (!filter.test(row)) continue;
+                if (total >= from && total < to) writer.write(row);
+                total++;
+            }
+        } else {
+            List<T> sorted;
+            if (size == 0) {
+                sorted = new ArrayList<>();
+                for (T row : rows) {
+                    if (filter.test(row)) sorted.add(row);
+                }
+                total = sorted.size();
+            } else {
+                // the first `to` rows in order: a max-heap that evicts its largest row when full
+                PriorityQueue<T> heap = new PriorityQueue<>(order.reversed());
+                for (T row : rows) {
+                    if (!filter.test(row)) continue;
+                    total++;
+                    if (heap.size() < to) {
+                        heap.add(row);
+                    } else if (order.compare(row, heap.peek()) < 0) {
+                        heap.poll();
+                        heap.add(row);
+                    }
+                }
+                sorted = new ArrayList<>(heap);
+            }
+            sorted.sort(order);
+            for (int i = (int) Math.min(from, sorted.size()); i < sorted.size(); i++) writer.write(sorted.get(i));
+        }
+        int pages = size == 0 ? 1 : (total + size - 1) / size;
+        if (format == Format.JSON) {
+            out.write("],\"total\":" + total + ",\"page\":" + q.getPage() + ",\"pages\":" + pages + "}\n");
+        } else if (total == 0) {
+            out.write("No matching rows.\n");
+        } else if (size > 0) {
+            out.write("Page " + q.getPage() + " of " + pages + " (" + total + " rows)\n");
+        }
+        out.flush();
+        return total;
+    }
+
+    // -------------------- Rows (same text as the displayInfo methods) --------------------
+    private void writeStudent(Student s) throws IOException {
+        List<String> courses = view.studentCourses(s.getStudentId());
+        if (format == Format.JSON) {
+            startJsonRow().append("{\"id\":");
+            Json.appendQuoted(row, s.getStudentId());
+            row.append(",\"name\":");
+            Json.appendQuoted(row, s.getName());
+            row.append(",\"courses\":[");
+            for (int i = 0; i < courses.size(); i++) {
+                if (i > 0) row.append(',');
+                Json.appendQuoted(row, courses.get(i));
+            }
+            row.append("],\"credits\":").append(view.studentCredits(s.getStudentId())).append('}');
+            out.append(row);
+            return;
+        }
+        out.write("Student ID: ");
+        out.write(s.getStudentId());
+        out.write(" | Name: ");
+        out.write(s.getName());
+        out.write(" | Enrolled: ");
+        out.write(courses.isEmpty() ? "(none)" : String.join(", ", courses));
+        if (!courses.isEmpty()) {
+            out.write(" | Credits: ");
+            out.write(Integer.toString(view.studentCredits(s.getStudentId())));
+        }
+        out.write('\n');
+    }
+
+    private void writeCourse(Course c) throws IOException {
+        if (format == Format.JSON) {
+            startJsonRow().append("{\"id\":");
+            Json.appendQuoted(row, c.getCourseId());
+            row.append(",\"name\":");
+            Json.appendQuoted(row, c.getCourseName());
+            row.append(",\"credits\":").append(c.getCredits())
+                    .append(",\"capacity\":").append(c.getCapacity())
+                    .append(",\"enrolled\":").append(view.enrolledCount(c.getCourseId()))
+                    .append(",\"waitlist\":").append(view.waitlistSize(c.getCourseId()))
+                    .append(",\"schedule\":");
+            Json.appendQuoted(row, Schedule.format(c.getSlots()));
+            row.append('}');
+            out.append(row);
+            return;
+        }
+        out.write(c.getCourseId());
+        out.write(" | ");
+        out.write(c.getCourseName());
+        out.write(" | Credits: ");
+        out.write(Integer.toString(c.getCredits()));
+        out.write(" | Capacity: ");
+        out.write(Integer.toString(c.getCapacity()));
+        out.write(" | Enrolled: ");
+        out.write(Integer.toString(view.enrolledCount(c.getCourseId())));
+        out.write(" | Waitlist: ");
+        out.write(Integer.toString(view.waitlistSize(c.getCourseId())));
+        if (c.getSlots() != 0) {
+            out.write(" | Meets: ");
+            out.write(Schedule.format(c.getSlots()));
+        }
+        out.write('\n');
+    }
+
+    private void writeEnrollment(Enrollment e) throws IOException {
+        if (format == Format.JSON) {
+            startJsonRow().append("{\"student\":");
+            Json.appendQuoted(row, e.getStudentId());
+            row.append(",\"course\":");
+            Json.appendQuoted(row, e.getCourseId());
+            row.append('}');
+            out.append(row);
+            return;
+        }
+        out.write("Student: ");
+        out.write(e.getStudentId());
+        out.write(" | Course: ");
+        out.write(e.getCourseId());
+        out.write('\n');
+    }
+
+    private StringBuilder startJsonRow() {
+        row.setLength(0);
+        if (!firstRow) row.append(',');
+        firstRow = false;
+        return row;
+    }
+
+    // -------------------- Sorting --------------------
+    private Comparator<Student> studentOrder(String sort) {
+        Comparator<Student> byId = Comparator.comparing(Student::getStudentId);
+        if (sort == null) return null;
+        switch (sort) {
+            case "id": return byId;
+            case "name": return Comparator.comparing(Student::getName).thenComparing(byId);
+            case "courses": return Comparator.comparingInt((Student s) -> view.studentCourseCount(s.getStudentId())).reversed().thenComparing(byId);
+            default: throw new IllegalArgumentException("students can be sorted by id, name or courses");
+        }
+    }
+
+    private Comparator<Course> courseOrder(String sort) {
+        Comparator<Course> byId = Comparator.comparing(Course::getCourseId);
+        if (sort == null) return null;
+        switch (sort) {
+            case "id": return byId;
+            case "name": return Comparator.comparing(Course::getCourseName).thenComparing(byId);
+            case "credits": return Comparator.comparingInt(Course::getCredits).reversed().thenComparing(byId);
+            case "enrolled": return Comparator.comparingInt((Course c) -> view.enrolledCount(c.getCourseId())).reversed().thenComparing(byId);
+            case "fill": return Comparator.comparingDouble(this::fillRate).reversed().thenComparing(byId);
+            default: throw new IllegalArgumentException("courses can be sorted by id, name, credits, enrolled or fill");
+        }
+    }
+
+    private static Comparator<Enrollment> enrollmentOrder(String sort) {
+        if (sort == null) return null;
+        switch (sort) {
+            case "student": return Comparator.comparing(Enrollment::getStudentId).thenComparing(Enrollment::getCourseId);
+            case "course": return Comparator.comparing(Enrollment::getCourseId).thenComparing(Enrollment::getStudentId);
+            default: throw new IllegalArgumentException("enrollments can be sorted by student or course");
+        }
+    }
+
+    // A course without seats counts as full
+    private double fillRate(Course c) {
+        int enrolled = view.enrolledCount(c.getCourseId());
+        return c.getCapacity() > 0 ? (double) enrolled / c.getCapacity() : 1.0 + enrolled;
+    }
+
+    // -------------------- Helpers --------------------
+    private static boolean anyMatch(String pattern, List<String> ids) {
+        for (String id : ids) {
+            if (ReportQuery.matches(pattern, id)) return true;
+        }
+        return false;
+    }
+
+    private static <T> List<T> lookup(List<String> ids, Function<String, T> find) {
+        List<T> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T t = find.apply(id);
+            if (t != null) found.add(t);
+        }
+        return found;
+    }
+
+    private static List<Enrollment> pairs(List<String> others, String id, boolean idIsStudent) {
+        List<Enrollment> list = new ArrayList<>(others.size());
+        for (String other : others) list.add(idIsStudent ? new Enrollment(id, other) : new Enrollment(other, id));
+        return list;
+    }
+}
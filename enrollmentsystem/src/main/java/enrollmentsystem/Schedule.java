@@ -0,0 +1,91 @@
+// Schedule.java
+// Weekly meeting times packed into a long: one bit per hour slot, 6 days (Mo-Sa) x 10 hours
+// (8:00-18:00). Two schedules overlap when their masks share a bit, so a conflict check is one AND.
+// Text form, as typed and as stored in courses.txt: blocks of days followed by an hour range whose
+// end is exclusive, e.g. "MoWe9-11 Fr14-16" is Monday and Wednesday 9-11 plus Friday 14-16.
+
+package enrollmentsystem;
+
+public final class Schedule {
+    public static final int FIRST_HOUR = 8;
+    public static final int HOURS_PER_DAY = 10;
+    private static final String[] DAYS = {"Mo", "Tu", "We", "Th", "Fr", "Sa"};
+
+    private Schedule() {
+    }
+
+    // Blank means no meeting times
+    public static long parse(String text) {
+        long slots = 0;
+        for (String block : text.trim().split("\\s+")) {
+            if (block.isEmpty()) continue;
+            int days = 0;
+            int i = 0;
+            while (i + 2 <= block.length() && Character.isLetter(block.charAt(i))) {
+                int d = day(block.substring(i, i + 2));
+                if (d < 0) throw new IllegalArgumentException("unknown day in '" + block + "' (use Mo Tu We Th Fr Sa)");
+                days |= 1 << d;
+                i += 2;
+            }
+            if (days == 0 || i == block.length()) throw new IllegalArgumentException("expected days then hours, e.g. MoWe9-11, not '" + block + "'");
+            String hours = block.substring(i);
+            int dash = hours.indexOf('-');
+            int from = hour(dash < 0 ? hours : hours.substring(0, dash), block);
+            int to = dash < 0 ? from + 1 : hour(hours.substring(dash + 1), block);
+            if (from < FIRST_HOUR || to > FIRST_HOUR + HOURS_PER_DAY || from >= to) {
+                throw new IllegalArgumentException("hours must lie within " + FIRST_HOUR + "-" + (FIRST_HOUR + HOURS_PER_DAY) + ", not '" + block + "'");
+            }
+            for (int d = 0; d < DAYS.length; d++) {
+                if ((days & 1 << d) == 0) continue;
+                for (int h = from; h < to; h++) slots |= 1L << (d * HOURS_PER_DAY + h - FIRST_HOUR);
+            }
+        }
+        return slots;
+    }
+
+    // Days with the same hours share a block: "MoWe9-11 Fr14-16"; "" for no meeting times
+    public static String format(long slots) {
+        StringBuilder sb = new StringBuilder();
+        int done = 0;
+        for (int d = 0; d < DAYS.length; d++) {
+            int hours = hoursOf(slots, d);
+            if (hours == 0 || (done & 1 << d) != 0) continue;
+            StringBuilder days = new StringBuilder();
+            for (int e = d; e < DAYS.length; e++) {
+                if (hoursOf(slots, e) == hours) {
+                    days.append(DAYS[e]);
+                    done |= 1 << e;
+                }
+            }
+            // one block per run of consecutive hours
+            for (int h = 0; h < HOURS_PER_DAY; h++) {
+                if ((hours & 1 << h) == 0) continue;
+                int end = h;
+                while (end < HOURS_PER_DAY && (hours & 1 << end) != 0) end++;
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(days).append(FIRST_HOUR + h).append('-').append(FIRST_HOUR + end);
+                h = end;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int hoursOf(long slots, int day) {
+        return (int) (slots >>> (day * HOURS_PER_DAY)) & ((1 << HOURS_PER_DAY) - 1);
+    }
+
+    private static int day(String name) {
+        for (int d = 0; d < DAYS.length; d++) {
+            if (DAYS[d].equalsIgnoreCase(name)) return d;
+        }
+        return -1;
+    }
+
+    private static int hour(String text, String block) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid hour in '" + block + "'");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+// ShardLayout.java
+// Partitioned storage for the two large data files. Students and their enrollments are split by a
+// hash of the student ID into N shards, shards/students-N-III.txt and shards/enrollments-N-III.txt
+// (same line formats as students.txt and enrollments.txt), with the shard count in shards/layout.txt.
+// A student's record and enrollments always share a shard, so a change to one student leaves one
+// shard out of date, and shards can be loaded independently of each other.
+// The count is part of the file names, so changing it writes a new set beside the old one; the
+// layout.txt rename switches to it in one step and only then is the old set deleted. layout.txt is
+// removed before the files, so it only ever names a complete set.
+
+package enrollmentsystem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.Collections;
+import java.util.stream.IntStream;
+
+final class ShardLayout {
+    interface ShardTask {
+        void run(int shard) throws IOException;
+    }
+
+    private final Path dir;
+    private final Path layoutFile;
+
+    ShardLayout(Path dataDir) {
+        this.dir = dataDir.resolve("shards");
+        this.layoutFile = dir.resolve("layout.txt");
+    }
+
+    // String.hashCode is fixed by the language spec, so shard numbers are stable across runs
+    static int shardOf(String sid, int shards) {
+        int h = sid.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards);
+    }
+
+    Path students(int n, int shard) {
+        return dir.resolve(String.format("students-%d-%03d.txt", n, shard));
+    }
+
+    Path enrollments(int n, int shard) {
+        return dir.resolve(String.format("enrollments-%d-%03d.txt", n, shard));
+    }
+
+    // Number of shards on disk, 0 when the data is in single files
+    int count() throws IOException {
+        if (!Files.exists(layoutFile)) return 0;
+        RecordTokenizer tok = new RecordTokenizer(Files.readString(layoutFile).trim());
+        if (!tok.next('=').equals("shards")) throw new MalformedRecordException("expected shards=N in " + layoutFile);
+        int n = tok.nextInt(',', "shards");
+        if (n <= 0) throw new MalformedRecordException("shard count must be positive in " + layoutFile);
+        return n;
+    }
+
+    // Switches to the n-shard set, which must be complete, then deletes every other set
+    void commit(int n) throws IOException {
+        DurableFiles.writeLines(layoutFile, Collections.singletonList("shards=" + n));
+        deleteShardsExcept(n);
+    }
+
+    // Removes the layout once the single files hold everything again
+    void remove() throws IOException {
+        Files.deleteIfExists(layoutFile);
+        DurableFiles.syncDirectory(layoutFile);
+        deleteShardsExcept(0);
+        try {
+            Files.deleteIfExists(dir);
+        } catch (DirectoryNotEmptyException e) {
+            // something else was put there; leave it
+        }
+    }
+
+    // Shard files of any count but n, including a set left half written by a failed change of count
+    private void deleteShardsExcept(int n) throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        String students = "students-" + n + "-", enrollments = "enrollments-" + n + "-";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "{students,enrollments}-*.txt")) {
+            for (Path p : files) {
+                String name = p.getFileName().toString();
+                if (!name.startsWith(students) && !name.startsWith(enrollments)) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    void createDirectory() throws IOException {
+        Files.createDirectories(dir);
+    }
+
+    // Runs task for each listed shard on the common fork-join pool, the caller included; a failure
+    // is rethrown as the IOException it was
+    static void forEach(int[] shards, ShardTask task) throws IOException {
+        try {
+            IntStream.of(shards).parallel().forEach(i -> {
+                try {
+                    task.run(i);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
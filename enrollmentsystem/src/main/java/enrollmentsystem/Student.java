@@ -0,0 +1,54 @@
+// Student.java
+// Student extends Person (Inheritance). Encapsulation for fields and methods.
+// A student's courses are not stored here: EnrollmentRepository's index is the only record of
+// enrollments (see EnrollmentRepository.studentCourses).
+
+package enrollmentsystem;
+
+import java.util.Collection;
+
+public class Student extends Person {
+
+    public Student(String studentId, String name) {
+        super(studentId, name);
+    }
+
+    public String getStudentId() {
+        return getId();
+    }
+
+    @Override
+    public void displayInfo() {
+        System.out.printf("Student ID: %s | Name: %s%n", getStudentId(), getName());
+    }
+
+    // Text storage helpers
+    // Format: studentId,name,course1|course2|course3
+    // The course list is a copy of the enrollments (enrollments.txt), kept for readers of students.txt
+    public String toRecord(Collection<String> courses) {
+        return String.format("%s,%s,%s", getStudentId(), escape(getName()), escape(String.join("|", courses)));
+    }
+
+    // Parse record: expects 3 parts but tolerates missing courses
+    public static Student fromRecord(String line) {
+        return fromRecord(new RecordTokenizer(line));
+    }
+
+    // Tokenizer variant used by the streaming loader. The course list is skipped: enrollments are
+    // loaded from enrollments.txt alone, so the two files can never disagree.
+    public static Student fromRecord(RecordTokenizer tok) {
+        String sid = tok.next(',');
+        if (sid.isEmpty()) throw new MalformedRecordException("missing student ID");
+        String name = unescape(tok.next(','));
+        return new Student(sid, name);
+    }
+
+    // simple escaping for commas/pipes (very basic): a comma would end the name field early
+    private static String escape(String s) {
+        return s.replace(",", " ").replace("\n", " ").replace("\r", " ");
+    }
+
+    private static String unescape(String s) {
+        return s;
+    }
+}
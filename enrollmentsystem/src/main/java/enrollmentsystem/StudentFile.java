@@ -0,0 +1,332 @@
+// StudentFile.java
+// Student records read on demand from students.txt, for lazy loading (--lazy). Instead of parsing
+// every student at startup, a sidecar index (students.idx) maps each student ID to the byte offset
+// of its line, and a record is read from the memory-mapped file the first time it is asked for.
+// Recently read students stay in a bounded LRU cache, split into segments so lookups from many
+// threads rarely wait on each other. Students added or renamed since the last save are held by the
+// repository until save() has merged them into a new students.txt; deleted ones are hidden here.
+//
+// students.idx (big-endian): magic "ENRI", version, the size and modification time of the
+// students.txt it describes (a mismatch means the index is rebuilt), the record count and a
+// power-of-two slot count, then one long per slot: line offset + 1, or 0 for empty. Slots are
+// probed linearly from the ID's hash; a probe reads the ID at that offset to compare.
+
+package enrollmentsystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StudentFile {
+    private static final int MAGIC = 0x454E5249; // "ENRI"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4;
+    private static final int SEGMENTS = 16;
+
+    // One version of students.txt with its index; replaced as a whole after each save
+    private static final class View {
+        final ByteBuffer data;
+        final ByteBuffer slots; // the index file, from HEADER_BYTES on
+        final int mask;
+        final int count;
+
+        View(ByteBuffer data, ByteBuffer slots, int mask, int count) {
+            this.data = data;
+            this.slots = slots;
+            this.mask = mask;
+            this.count = count;
+        }
+    }
+
+    private final Path file;
+    private final Path indexFile;
+    private final List<LinkedHashMap<String, Student>> cache = new ArrayList<>(SEGMENTS);
+    private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger count = new AtomicInteger();
+    private volatile View view;
+
+    private StudentFile(Path file, Path indexFile, int cacheSize) {
+        this.file = file;
+        this.indexFile = indexFile;
+        int perSegment = Math.max(1, cacheSize / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            cache.add(new LinkedHashMap<String, Student>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Student> eldest) {
+                    return size() > perSegment;
+                }
+            });
+        }
+    }
+
+    // Maps the file and its index, (re)building the index if it is missing or out of date.
+    // Throws if the file is too large to map (2 GB).
+    public static StudentFile open(Path file, Path indexFile, int cacheSize) throws IOException {
+        StudentFile f = new StudentFile(file, indexFile, cacheSize);
+        f.view = f.map();
+        f.count.set(f.view.count);
+        return f;
+    }
+
+    // Students currently on record: the file's, plus those added, minus those deleted since
+    public int count() {
+        return count.get();
+    }
+
+    // The student as last saved (or cached), or null if the file has no such student or it was deleted
+    public Student find(String sid) {
+        if (deleted.contains(sid)) return null;
+        LinkedHashMap<String, Student> segment = segment(sid);
+        synchronized (segment) {
+            Student s = segment.get(sid);
+            if (s != null) return s;
+        }
+        Student s = read(view, sid);
+        if (s == null) return null;
+        synchronized (segment) {
+            Student cached = segment.putIfAbsent(sid, s); // another thread may have read it meanwhile
+            return cached != null ? cached : s;
+        }
+    }
+
+    // -------------------- Changes (from the repository) --------------------
+    void added(String sid) {
+        deleted.remove(sid);
+        count.incrementAndGet();
+    }
+
+    // False if the student was already deleted
+    boolean removed(String sid) {
+        if (!deleted.add(sid)) return false;
+        LinkedHashMap<String, Student> segment = segment(sid);
+        synchronized (segment) {
+            segment.remove(sid);
+        }
+        count.decrementAndGet();
+        return true;
+    }
+
+    // Keeps a student the repository no longer holds, so it stays the same object
+    void cache(Student s) {
+        LinkedHashMap<String, Student> segment = segment(s.getStudentId());
+        synchronized (segment) {
+            segment.put(s.getStudentId(), s);
+        }
+    }
+
+    private LinkedHashMap<String, Student> segment(String sid) {
+        return cache.get((sid.hashCode() & 0x7fffffff) % SEGMENTS);
+    }
+
+    // -------------------- Listing --------------------
+    // Every student in file order, with held students (added or renamed since the last save) in
+    // place of their saved record and new ones at the end. Records read here skip the cache.
+    Iterator<Student> iterator(Map<String, Student> held) {
+        return iterator(held, deleted);
+    }
+
+    private Iterator<Student> iterator(Map<String, Student> held, Set<String> deleted) {
+        View v = view;
+        Set<String> heldOnFile = new HashSet<>();
+        Iterator<Student> fromFile = new Iterator<Student>() {
+            private int pos;
+            private Student next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && pos < v.data.limit()) {
+                    int start = pos;
+                    int end = lineEnd(v.data, start);
+                    pos = end + 1;
+                    Student s = parse(v.data, start, end);
+                    // duplicate IDs: only the line the index points to counts, as when loading eagerly
+                    if (s == null || offsetOf(v, s.getStudentId()) != start || deleted.contains(s.getStudentId())) continue;
+                    Student h = held.get(s.getStudentId());
+                    if (h != null) heldOnFile.add(s.getStudentId());
+                    next = h != null ? h : s;
+                }
+                return next != null;
+            }
+
+            @Override
+            public Student next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Student s = next;
+                next = null;
+                return s;
+            }
+        };
+        return new Iterator<Student>() {
+            private Iterator<Student> added;
+
+            @Override
+            public boolean hasNext() {
+                if (fromFile.hasNext()) return true;
+                if (added == null) {
+                    List<Student> rest = new ArrayList<>();
+                    for (Student s : held.values()) {
+                        if (!heldOnFile.contains(s.getStudentId()) && !deleted.contains(s.getStudentId())) rest.add(s);
+                    }
+                    added = rest.iterator();
+                }
+                return added.hasNext();
+            }
+
+            @Override
+            public Student next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return added != null ? added.next() : fromFile.next();
+            }
+        };
+    }
+
+    // -------------------- Save --------------------
+    // Writes a new students.txt from the saved records plus the repository's held students, indexes
+    // it and switches to it. Returns the file's size. Changes made meanwhile stay held or deleted
+    // and go into the next save.
+    long save(EnrollmentRepository repo, Map<String, Student> held) throws IOException {
+        Map<String, Student> heldNow = new HashMap<>(held);
+        Set<String> deletedNow = new HashSet<>(deleted);
+        Map<String, String> written = new HashMap<>(); // held student ID -> name written
+        Iterator<Student> students = iterator(heldNow, deletedNow);
+        long bytes = DurableFiles.writeLines(file, () -> new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return students.hasNext();
+            }
+
+            @Override
+            public String next() {
+                Student s = students.next();
+                String name = s.getName();
+                if (heldNow.get(s.getStudentId()) == s) written.put(s.getStudentId(), name);
+                return new Student(s.getStudentId(), name).toRecord(repo.studentCourses(s.getStudentId()));
+            }
+        });
+        view = map();
+        // the new file no longer has these students, and now holds what was written for these
+        deleted.removeAll(deletedNow);
+        for (Map.Entry<String, String> w : written.entrySet()) repo.release(heldNow.get(w.getKey()), w.getValue());
+        return bytes;
+    }
+
+    // -------------------- File access --------------------
+    private View map() throws IOException {
+        ByteBuffer data = mapped(file);
+        View v = readIndex(data);
+        return v != null ? v : buildIndex(data);
+    }
+
+    private static ByteBuffer mapped(Path path) throws IOException {
+        if (!Files.exists(path)) return ByteBuffer.allocate(0);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException(path.getFileName() + " is too large to map");
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // The existing index, or null if it is missing, damaged or describes another version of the file
+    private View readIndex(ByteBuffer data) throws IOException {
+        if (!Files.exists(indexFile) || !Files.exists(file)) return null;
+        ByteBuffer idx = mapped(indexFile);
+        if (idx.limit() < HEADER_BYTES || idx.getInt(0) != MAGIC || idx.getInt(4) != VERSION) return null;
+        if (idx.getLong(8) != data.limit() || idx.getLong(16) != Files.getLastModifiedTime(file).toMillis()) return null;
+        int count = idx.getInt(24);
+        int slots = idx.getInt(28);
+        if (Integer.bitCount(slots) != 1 || idx.limit() != HEADER_BYTES + 8L * slots) return null;
+        return new View(data, idx.position(HEADER_BYTES).slice(), slots - 1, count);
+    }
+
+    // One pass to count lines, one to hash the first occurrence of each ID into a mapped temporary
+    // file, which then replaces the index
+    private View buildIndex(ByteBuffer data) throws IOException {
+        int lines = 1;
+        for (int i = 0; i < data.limit(); i++) {
+            if (data.get(i) == '\n') lines++;
+        }
+        int slots = Integer.highestOneBit(Math.max(16, lines + lines / 2) - 1) << 1; // at most 2/3 full
+        Path tmp = DurableFiles.tempFor(indexFile);
+        MappedByteBuffer idx;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            idx = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + 8L * slots);
+        }
+        View v = new View(data, idx.position(HEADER_BYTES).slice(), slots - 1, 0);
+        int count = 0;
+        for (int pos = 0; pos < data.limit(); ) {
+            int end = lineEnd(data, pos);
+            String sid = idAt(data, pos, end);
+            if (sid != null && offsetOf(v, sid) < 0) {
+                int slot = hash(sid) & v.mask;
+                while (v.slots.getLong(8 * slot) != 0) slot = (slot + 1) & v.mask;
+                v.slots.putLong(8 * slot, pos + 1L);
+                count++;
+            }
+            pos = end + 1;
+        }
+        idx.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, data.limit())
+                .putLong(16, Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : 0)
+                .putInt(24, count).putInt(28, slots);
+        idx.force();
+        DurableFiles.replace(tmp, indexFile);
+        return new View(data, v.slots, v.mask, count);
+    }
+
+    private static Student read(View v, String sid) {
+        int offset = offsetOf(v, sid);
+        return offset < 0 ? null : parse(v.data, offset, lineEnd(v.data, offset));
+    }
+
+    // Byte offset of the student's line, or -1
+    private static int offsetOf(View v, String sid) {
+        for (int slot = hash(sid) & v.mask; ; slot = (slot + 1) & v.mask) {
+            long entry = v.slots.getLong(8 * slot);
+            if (entry == 0) return -1;
+            int offset = (int) (entry - 1);
+            if (sid.equals(idAt(v.data, offset, lineEnd(v.data, offset)))) return offset;
+        }
+    }
+
+    private static int hash(String sid) {
+        int h = sid.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int lineEnd(ByteBuffer data, int from) {
+        int i = from;
+        while (i < data.limit() && data.get(i) != '\n') i++;
+        return i;
+    }
+
+    private static String line(ByteBuffer data, int start, int end) {
+        if (end > start && data.get(end - 1) == '\r') end--;
+        byte[] bytes = new byte[end - start];
+        data.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Parsed like the eager loader; null for blank or malformed lines
+    private static Student parse(ByteBuffer data, int start, int end) {
+        String line = line(data, start, end);
+        if (line.isBlank()) return null;
+        try {
+            return Student.fromRecord(new RecordTokenizer(line));
+        } catch (MalformedRecordException e) {
+            return null;
+        }
+    }
+
+    // The ID field alone, decoded without the rest of the line; null if there is none
+    private static String idAt(ByteBuffer data, int start, int end) {
+        int comma = start;
+        while (comma < end && data.get(comma) != ',') comma++;
+        String sid = line(data, start, comma).trim();
+        return sid.isEmpty() ? null : sid;
+    }
+}
@@ -0,0 +1,128 @@
+// Waitlist.java
+// Per-course waitlist ordered by priority (higher first, e.g. seniority), then by request time.
+// Backed by a binary heap, so joining and promoting the head are O(log n). Leaving is O(1):
+// the entry is forgotten and its heap node skipped when it reaches the top.
+// Methods lock an internal monitor, so a caller may hold the Waitlist object itself across a
+// sequence of calls (EnrollmentEngine does while promoting) without blocking readers such as saving.
+// Every change also adjusts a counter shared by all of a repository's waitlists, so the total
+// number of students waiting is known without visiting each list.
+
+package enrollmentsystem;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Waitlist {
+    public static final class Entry {
+        private final String studentId;
+        private final int priority;
+        private final long seq;
+
+        Entry(String studentId, int priority, long seq) {
+            this.studentId = studentId;
+            this.priority = priority;
+            this.seq = seq;
+        }
+
+        public String getStudentId() {
+            return studentId;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = (a, b) -> a.priority != b.priority
+            ? Integer.compare(b.priority, a.priority)
+            : Long.compare(a.seq, b.seq);
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(ORDER);
+    private final Map<String, Entry> live = new HashMap<>();
+    private final Object lock = new Object();
+    private AtomicInteger total;
+
+    public Waitlist() {
+        this(new AtomicInteger());
+    }
+
+    // total is the shared count of waiting students this list adds to
+    public Waitlist(AtomicInteger total) {
+        this.total = total;
+    }
+
+    // Returns false if the student is already waiting
+    public boolean add(String sid, int priority, long seq) {
+        synchronized (lock) {
+            if (live.containsKey(sid)) return false;
+            Entry e = new Entry(sid, priority, seq);
+            live.put(sid, e);
+            heap.add(e);
+            total.incrementAndGet();
+            return true;
+        }
+    }
+
+    public boolean remove(String sid) {
+        synchronized (lock) {
+            if (live.remove(sid) == null) return false;
+            total.decrementAndGet();
+            // rebuild once forgotten nodes outnumber live ones, so the heap stays O(live)
+            if (heap.size() > 2 * live.size() + 16) {
+                heap.clear();
+                heap.addAll(live.values());
+            }
+            return true;
+        }
+    }
+
+    public boolean contains(String sid) {
+        synchronized (lock) {
+            return live.containsKey(sid);
+        }
+    }
+
+    public Entry peek() {
+        synchronized (lock) {
+            Entry head;
+            while ((head = heap.peek()) != null && live.get(head.studentId) != head) heap.poll();
+            return head;
+        }
+    }
+
+    public Entry poll() {
+        synchronized (lock) {
+            Entry head = peek();
+            if (head != null) {
+                heap.poll();
+                live.remove(head.studentId);
+                total.decrementAndGet();
+            }
+            return head;
+        }
+    }
+
+    // Takes this list's students out of the shared count, for a list that is being discarded;
+    // later changes to it are no longer counted
+    void detach() {
+        synchronized (lock) {
+            total.addAndGet(-live.size());
+            total = new AtomicInteger();
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return live.size();
+        }
+    }
+
+    // Entries in promotion order (copy; for display and saving)
+    public List<Entry> entries() {
+        synchronized (lock) {
+            List<Entry> list = new ArrayList<>(live.values());
+            list.sort(ORDER);
+            return list;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+// BatchImportTest.java
+// A bulk import of students, courses and enrollment requests: header lines are skipped, every
+// rejected line is reported with its file, line number and reason, and what was imported is saved
+// by the one compaction and reloads from the data files alone.
+
+package enrollmentsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchImportTest {
+    @TempDir
+    Path dir;
+
+    private Path data;
+    private final EnrollmentRepository repo = new EnrollmentRepository();
+    private final EnrollmentEngine engine = new EnrollmentEngine(repo);
+    private DataStore store;
+
+    @BeforeEach
+    void open() throws IOException {
+        data = Files.createDirectory(dir.resolve("data"));
+        store = new DataStore(data, repo);
+        store.load();
+    }
+
+    private BatchImport batch() {
+        return new BatchImport(repo, engine, store, new Metrics()).report(dir.resolve("rejections.csv"));
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(dir.resolve(name), List.of(lines));
+    }
+
+    @Test
+    void importsAndReportsEveryRejectedLine() throws IOException {
+        BatchImport batch = batch()
+                .students(write("students.csv", "studentId,name", "S1,Ana", "S2,Bo", "", "S1,Dup"))
+                .courses(write("courses.csv", "course_id,name,credits,capacity", "C1,Algebra,3,1", "C2,Logic,3,10",
+                        "C1,Again,3,5", "C9,Bad,x,5"))
+                .enrollments(write("enrollments.csv", "student_id,course_id", "S1,C1", "S2,C1", "S2,C404", "S1,C1",
+                        "S2,C2", "S9,C2"));
+        batch.run();
+
+        assertEquals(2, batch.getStudentsAdded());
+        assertEquals(2, batch.getCoursesAdded());
+        assertEquals(2, batch.getEnrolled());
+        assertEquals(7, batch.getRejected());
+        assertEquals(List.of(
+                "file,line,reason,record",
+                "students.csv,5,DUPLICATE_ID,\"S1,Dup\"",
+                "courses.csv,4,DUPLICATE_ID,\"C1,Again,3,5\"",
+                "courses.csv,5,MALFORMED: invalid credits 'x',\"C9,Bad,x,5\"",
+                "enrollments.csv,3,COURSE_FULL,\"S2,C1\"",
+                "enrollments.csv,4,COURSE_NOT_FOUND,\"S2,C404\"",
+                "enrollments.csv,5,ALREADY_ENROLLED,\"S1,C1\"",
+                "enrollments.csv,7,STUDENT_NOT_FOUND,\"S9,C2\""), Files.readAllLines(dir.resolve("rejections.csv")));
+        assertEquals("Ana", repo.findStudent("S1").getName());
+        assertEquals("Algebra", repo.findCourse("C1").getCourseName());
+    }
+
+    @Test
+    void aFirstLineThatIsNotAHeaderIsImported() throws IOException {
+        BatchImport batch = batch().students(write("students.csv", "S1,Ana", "S2,Bo"));
+        batch.run();
+        assertEquals(2, batch.getStudentsAdded());
+        assertEquals(List.of("file,line,reason,record"), Files.readAllLines(dir.resolve("rejections.csv")));
+    }
+
+    @Test
+    void theSingleCompactionSavesEverything() throws IOException {
+        batch().students(write("students.csv", "id,name", "S1,Ana", "S2,Bo"))
+                .courses(write("courses.csv", "id,name,credits,capacity,times", "C1,Algebra,3,1,MoWe9-10", "C2,Logic,4,10"))
+                .enrollments(write("enrollments.csv", "S1,C1", "S2,C1", "S2,C2"))
+                .run();
+        store.close();
+        assertFalse(Files.exists(data.resolve("journal.log")), "imported changes are not journaled");
+
+        EnrollmentRepository reloaded = new EnrollmentRepository();
+        new DataStore(data, reloaded).load();
+        assertEquals(2, reloaded.studentCount());
+        assertEquals(2, reloaded.courseCount());
+        assertEquals(2, reloaded.enrollmentCount());
+        assertTrue(reloaded.isEnrolled("S1", "C1"));
+        assertTrue(reloaded.isEnrolled("S2", "C2"));
+        assertEquals("MoWe9-10", Schedule.format(reloaded.findCourse("C1").getSlots()));
+        assertEquals(List.of(), EnrollmentStats.verify(reloaded));
+    }
+
+    @Test
+    void aMissingInputImportsNothing() throws IOException {
+        BatchImport batch = batch().students(write("students.csv", "S1,Ana")).courses(dir.resolve("missing.csv"));
+        assertThrows(NoSuchFileException.class, batch::run);
+        assertEquals(0, repo.studentCount());
+    }
+}
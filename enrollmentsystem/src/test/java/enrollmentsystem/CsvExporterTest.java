@@ -0,0 +1,94 @@
+// CsvExporterTest.java
+// Split exports: one file per course under a unique name, a manifest of what was written, and
+// only files from an earlier export deleted on the next one; a directory holding anything else
+// is refused.
+
+package enrollmentsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvExporterTest {
+    @TempDir
+    Path dir;
+
+    private final EnrollmentRepository repo = new EnrollmentRepository();
+    private final Metrics metrics = new Metrics();
+
+    @BeforeEach
+    void enroll() {
+        EnrollmentEngine engine = new EnrollmentEngine(repo);
+        for (String cid : new String[]{"IT101", "it101", "A/B"}) repo.addCourse(new Course(cid, "Course " + cid, 3, 10));
+        repo.addStudent(new Student("S1", "Ana"));
+        repo.addStudent(new Student("S2", "Bo"));
+        engine.enroll("S1", "IT101");
+        engine.enroll("S2", "IT101");
+        engine.enroll("S1", "A/B");
+    }
+
+    private long split(Path target) throws IOException {
+        return new CsvExporter(repo, metrics).options("split").export(target);
+    }
+
+    @Test
+    void writesOneUniquelyNamedFilePerCourse() throws IOException {
+        Path out = dir.resolve("export");
+        assertEquals(3, split(out));
+        List<String> files = files(out);
+        assertEquals(4, files.size(), files.toString());
+        assertTrue(files.contains("A%2FB.csv"));
+        assertTrue(files.contains(CsvExporter.MANIFEST));
+        assertEquals(List.of("student_id,course_id", "S1,A/B"), Files.readAllLines(out.resolve("A%2FB.csv")));
+        List<String> listed = Files.readAllLines(out.resolve(CsvExporter.MANIFEST));
+        assertEquals(files.stream().filter(f -> !f.equals(CsvExporter.MANIFEST)).collect(Collectors.toList()), listed.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void reExportDeletesOnlyItsOwnStaleFiles() throws IOException {
+        Path out = dir.resolve("export");
+        split(out);
+        Files.writeString(out.resolve("notes.csv"), "mine\n");
+        repo.removeCourse("A/B");
+        assertEquals(2, split(out));
+        List<String> files = files(out);
+        assertFalse(files.contains("A%2FB.csv"), files.toString());
+        assertTrue(files.contains("notes.csv"), files.toString());
+        assertEquals("mine\n", Files.readString(out.resolve("notes.csv")));
+    }
+
+    @Test
+    void refusesADirectoryWithOtherFiles() throws IOException {
+        Files.writeString(dir.resolve("notes.csv"), "mine\n");
+        Files.writeString(dir.resolve("IT101.csv"), "also mine\n");
+        IOException e = assertThrows(IOException.class, () -> split(dir));
+        assertTrue(e.getMessage().contains("not empty"), e.getMessage());
+        assertEquals(List.of("IT101.csv", "notes.csv"), files(dir));
+        assertEquals("also mine\n", Files.readString(dir.resolve("IT101.csv")));
+    }
+
+    @Test
+    void manifestNamesOutsideTheDirectoryAreIgnored() throws IOException {
+        Path out = dir.resolve("export");
+        split(out);
+        Files.writeString(dir.resolve("victim.csv"), "keep\n");
+        Files.writeString(out.resolve(CsvExporter.MANIFEST), "../victim.csv\n");
+        split(out);
+        assertTrue(Files.exists(dir.resolve("victim.csv")));
+    }
+
+    private static List<String> files(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+// DataStoreShardTest.java
+// Changing the shard count: a save that fails partway must leave the old layout loadable with every
+// student, and a save that completes must load with the new count and leave no old shard files.
+
+package enrollmentsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataStoreShardTest {
+    private static final int STUDENTS = 200;
+
+    @TempDir
+    Path dir;
+
+    private final EnrollmentRepository repo = new EnrollmentRepository();
+    private DataStore store;
+
+    @BeforeEach
+    void saveAtFourShards() throws IOException {
+        repo.addCourse(new Course("C1", "Algebra", 3, STUDENTS));
+        EnrollmentEngine engine = new EnrollmentEngine(repo);
+        for (int s = 0; s < STUDENTS; s++) {
+            repo.addStudent(new Student("S" + s, "Student " + s));
+            if (s % 2 == 0) engine.enroll("S" + s, "C1");
+        }
+        store = new DataStore(dir, repo);
+        store.setShards(4);
+        store.markAllChanged();
+        store.compact();
+        assertEquals(List.of("enrollments-4-000.txt", "enrollments-4-001.txt", "enrollments-4-002.txt", "enrollments-4-003.txt",
+                "layout.txt", "students-4-000.txt", "students-4-001.txt", "students-4-002.txt", "students-4-003.txt"), shardFiles());
+    }
+
+    @Test
+    void failedRelayoutKeepsTheOldShards() throws IOException {
+        // a directory where shard 7's temporary file goes makes that write fail
+        Path blocker = Files.createDirectory(dir.resolve("shards").resolve("students-8-007.txt.tmp"));
+        store.setShards(8);
+        assertThrows(IOException.class, store::compact);
+
+        EnrollmentRepository reloaded = reload();
+        assertEquals(STUDENTS, reloaded.studentCount());
+        assertEquals(STUDENTS / 2, reloaded.enrollmentCount());
+
+        // the retry replaces the half-written set and then the old one
+        Files.delete(blocker);
+        store.compact();
+        List<String> files = shardFiles();
+        assertEquals(17, files.size(), "expected layout.txt and 8 + 8 shard files: " + files);
+        assertTrue(files.stream().noneMatch(f -> f.contains("-4-")), "old shard files left: " + files);
+        reloaded = reload();
+        assertEquals(STUDENTS, reloaded.studentCount());
+        assertEquals(STUDENTS / 2, reloaded.enrollmentCount());
+    }
+
+    @Test
+    void unshardingRemovesEveryShardFile() throws IOException {
+        store.setShards(0);
+        store.compact();
+        assertFalse(Files.exists(dir.resolve("shards")));
+        EnrollmentRepository reloaded = reload();
+        assertEquals(STUDENTS, reloaded.studentCount());
+        assertEquals(STUDENTS / 2, reloaded.enrollmentCount());
+    }
+
+    // Whatever layout is on disk
+    private EnrollmentRepository reload() {
+        EnrollmentRepository reloaded = new EnrollmentRepository();
+        new DataStore(dir, reloaded).load();
+        return reloaded;
+    }
+
+    private List<String> shardFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve("shards"))) {
+            return files.map(p -> p.getFileName().toString()).filter(n -> n.endsWith(".txt")).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+// DataStoreWaitlistReloadTest.java
+// A compaction writes waitlists.txt before the binary snapshot, and changes go on meanwhile: a
+// student or course deleted in between is missing from the snapshot but still has waitlist places
+// in the text file. Reloading must not bring those places back.
+
+package enrollmentsystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataStoreWaitlistReloadTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void placesOfStudentsAndCoursesDeletedBeforeTheSnapshotAreDropped() throws IOException {
+        EnrollmentRepository repo = new EnrollmentRepository();
+        repo.addCourse(new Course("C1", "Algebra", 3, 10));
+        repo.addCourse(new Course("C2", "Logic", 3, 10));
+        for (String sid : new String[]{"S1", "S2", "S3"}) repo.addStudent(new Student(sid, "Student " + sid));
+        repo.addToWaitlist("S1", "C2", 0);
+        repo.addToWaitlist("S2", "C1", 0);
+        repo.addToWaitlist("S3", "C1", 1);
+        DataStore store = new DataStore(dir, repo);
+        store.markAllChanged();
+        store.compact();
+
+        // as if both deletes landed after waitlists.txt was written but before the snapshot was
+        repo.removeCourse("C2");
+        repo.removeStudent("S2");
+        BinarySnapshot.write(dir.resolve("snapshot.bin"), repo);
+        store.logMutation(Journal.DELETE_COURSE, "C2");
+        store.logMutation(Journal.DELETE_STUDENT, "S2");
+        store.close();
+
+        EnrollmentRepository reloaded = new EnrollmentRepository();
+        new DataStore(dir, reloaded).load();
+        assertNull(reloaded.findCourse("C2"));
+        assertNull(reloaded.findStudent("S2"));
+        assertEquals(1, reloaded.totals().getWaiting());
+        assertEquals(0, reloaded.waitlistSize("C2"));
+        assertTrue(reloaded.findWaitlist("C1").contains("S3"));
+        assertEquals(List.of(), EnrollmentStats.verify(reloaded));
+    }
+}
@@ -0,0 +1,152 @@
+// EnrollmentEngineConcurrencyTest.java
+// Many threads enrolling into and dropping out of a small course at once: the seat count never
+// passes the capacity, and afterwards it agrees with both directions of the enrollment index.
+// Also races a waitlisted student's drop against the promotion that a freed seat starts.
+
+package enrollmentsystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnrollmentEngineConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int CAPACITY = 5;
+    private static final int STUDENTS = 200;
+
+    private final EnrollmentRepository repo = new EnrollmentRepository();
+    private final EnrollmentEngine engine = new EnrollmentEngine(repo);
+
+    private void addStudents(int n) {
+        for (int s = 0; s < n; s++) repo.addStudent(new Student("S" + s, "Student " + s));
+    }
+
+    @Test
+    void concurrentEnrollmentsFillExactlyTheCapacity() throws Exception {
+        repo.addCourse(new Course("C1", "Small", 3, CAPACITY));
+        addStudents(STUDENTS);
+        AtomicInteger enrolled = new AtomicInteger();
+        runTogether(THREADS, t -> {
+            for (int s = t; s < STUDENTS; s += THREADS) {
+                if (engine.enroll("S" + s, "C1") == EnrollmentEngine.Result.ENROLLED) enrolled.incrementAndGet();
+            }
+        });
+        assertEquals(CAPACITY, enrolled.get());
+        assertConsistent("C1");
+    }
+
+    @Test
+    void seatCountNeverPassesCapacityWhileEnrollingAndDropping() throws Exception {
+        repo.addCourse(new Course("C1", "Small", 3, CAPACITY));
+        addStudents(STUDENTS);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger maxSeen = new AtomicInteger();
+        Thread watcher = new Thread(() -> {
+            while (running.get()) {
+                maxSeen.accumulateAndGet(repo.enrolledCount("C1"), Math::max);
+                maxSeen.accumulateAndGet(repo.courseMembers("C1").size(), Math::max);
+            }
+        });
+        watcher.start();
+        try {
+            runTogether(THREADS, t -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < 5_000; i++) {
+                    String sid = "S" + rnd.nextInt(STUDENTS);
+                    switch (rnd.nextInt(3)) {
+                        case 0: engine.enroll(sid, "C1"); break;
+                        case 1: engine.joinWaitlist(sid, "C1", rnd.nextInt(3)); break;
+                        default: engine.drop(sid, "C1"); break;
+                    }
+                }
+            });
+        } finally {
+            running.set(false);
+            watcher.join();
+        }
+        assertTrue(maxSeen.get() <= CAPACITY, "seat count reached " + maxSeen.get());
+        assertConsistent("C1");
+        // a freed seat always goes to the waitlist
+        if (repo.waitlistSize("C1") > 0) assertEquals(CAPACITY, repo.enrolledCount("C1"));
+    }
+
+    // Y holds the only seat and X waits for it; Y and X drop at the same time. Whatever the
+    // interleaving, X's DROPPED must mean X ends up neither enrolled nor waiting.
+    @Test
+    void droppingAWaitlistPlaceRacesThePromotion() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int trial = 0; trial < 5_000; trial++) {
+                EnrollmentRepository repo = new EnrollmentRepository();
+                EnrollmentEngine engine = new EnrollmentEngine(repo);
+                repo.addCourse(new Course("C1", "One seat", 3, 1));
+                repo.addStudent(new Student("X", "Waiting"));
+                repo.addStudent(new Student("Y", "Enrolled"));
+                assertEquals(EnrollmentEngine.Result.ENROLLED, engine.enroll("Y", "C1"));
+                assertEquals(EnrollmentEngine.Result.WAITLISTED, engine.joinWaitlist("X", "C1", 0));
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<EnrollmentEngine.Result> y = pool.submit(() -> {
+                    start.await();
+                    return engine.drop("Y", "C1");
+                });
+                Future<EnrollmentEngine.Result> x = pool.submit(() -> {
+                    start.await();
+                    return engine.drop("X", "C1");
+                });
+                start.countDown();
+                assertEquals(EnrollmentEngine.Result.DROPPED, y.get());
+                assertEquals(EnrollmentEngine.Result.DROPPED, x.get(), "trial " + trial);
+                assertFalse(repo.isEnrolled("X", "C1"), "X dropped but still enrolled in trial " + trial);
+                assertEquals(0, repo.waitlistSize("C1"), "trial " + trial);
+                assertEquals(0, repo.enrolledCount("C1"), "trial " + trial);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void assertConsistent(String cid) {
+        Course c = repo.findCourse(cid);
+        List<String> members = repo.courseMembers(cid);
+        assertTrue(repo.enrolledCount(cid) <= c.getCapacity(), "over capacity: " + repo.enrolledCount(cid));
+        assertEquals(members.size(), repo.enrolledCount(cid), "seat count against members");
+        assertEquals(members.size(), repo.enrollmentCount(), "enrollment count against members");
+        for (String sid : members) {
+            assertTrue(repo.studentCourses(sid).contains(cid), sid + " missing the course on their side");
+            Waitlist w = repo.findWaitlist(cid);
+            assertFalse(w != null && w.contains(sid), sid + " both enrolled and waiting");
+        }
+    }
+
+    private interface Task {
+        void run(int thread) throws Exception;
+    }
+
+    // Starts every thread at once and rethrows the first failure
+    private static void runTogether(int threads, Task task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
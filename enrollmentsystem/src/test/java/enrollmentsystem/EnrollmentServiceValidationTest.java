@@ -0,0 +1,88 @@
+// EnrollmentServiceValidationTest.java
+// Input the data files cannot hold is rejected before anything changes: IDs with separators or
+// line breaks, names with line breaks, negative credits and capacities. What is accepted must
+// survive a save and reload.
+
+package enrollmentsystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnrollmentServiceValidationTest {
+    @TempDir
+    Path dir;
+
+    private final EnrollmentRepository repo = new EnrollmentRepository();
+    private EnrollmentService service;
+
+    @BeforeEach
+    void open() throws IOException {
+        Metrics metrics = new Metrics();
+        service = new EnrollmentService(repo, new EnrollmentEngine(repo, metrics), new DataStore(dir, repo, metrics), metrics);
+        service.addCourse("C1", "Algebra", 3, 10);
+        service.addStudent("S1", "Ana");
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        service.close();
+    }
+
+    @Test
+    void rejectsIdsTheFilesCannotHold() {
+        for (String id : new String[]{"", "S,2", "S|2", "S\n2", "S\r2"}) {
+            assertThrows(IllegalArgumentException.class, () -> service.addStudent(id, "Bo"), id);
+            assertThrows(IllegalArgumentException.class, () -> service.addCourse(id, "Logic", 3, 10), id);
+        }
+        assertEquals(1, repo.studentCount());
+        assertEquals(1, repo.courseCount());
+    }
+
+    @Test
+    void rejectsNegativeNumbers() {
+        assertThrows(IllegalArgumentException.class, () -> service.addCourse("C2", "Logic", -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.addCourse("C2", "Logic", 3, -1));
+        assertThrows(IllegalArgumentException.class, () -> service.updateCapacity("C1", -1));
+        assertNull(repo.findCourse("C2"));
+        assertEquals(10, repo.findCourse("C1").getCapacity());
+    }
+
+    @Test
+    void rejectsNamesWithLineBreaks() {
+        assertThrows(IllegalArgumentException.class, () -> service.addCourse("C2", "Intro\nEvil,5,5", 3, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.renameCourse("C1", "Intro\r\nEvil"));
+        assertThrows(IllegalArgumentException.class, () -> service.addStudent("S2", "Bo\nEvil"));
+        assertThrows(IllegalArgumentException.class, () -> service.renameStudent("S1", "Ana\rEvil"));
+        assertNull(repo.findCourse("C2"));
+        assertNull(repo.findStudent("S2"));
+        assertEquals("Algebra", repo.findCourse("C1").getCourseName());
+        assertEquals("Ana", repo.findStudent("S1").getName());
+    }
+
+    @Test
+    void acceptedNamesSurviveASaveAndReload() throws IOException {
+        service.addCourse("C2", "Logic, Sets and Proofs", 4, 20);
+        service.enroll("S1", "C2");
+        service.save();
+        EnrollmentRepository reloaded = new EnrollmentRepository();
+        new DataStore(dir, reloaded).load();
+        assertEquals(2, reloaded.courseCount());
+        assertTrue(reloaded.isEnrolled("S1", "C2"));
+    }
+
+    @Test
+    void courseRecordsStayOnOneLine() {
+        Course c = new Course("C9", "Intro\nEvil,5,5", 3, 10);
+        assertFalse(c.toRecord().contains("\n"));
+        Course back = Course.fromRecord(c.toRecord());
+        assertEquals(3, back.getCredits());
+        assertEquals(10, back.getCapacity());
+    }
+}
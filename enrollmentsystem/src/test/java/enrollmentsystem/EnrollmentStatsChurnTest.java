@@ -0,0 +1,100 @@
+// EnrollmentStatsChurnTest.java
+// Seeded random churn through EnrollmentService (adds, deletes, capacity changes, enrollments,
+// drops and waitlist joins, with reads in between): the incrementally kept statistics must match a
+// full recount every few hundred steps, and again after the journal is reloaded.
+
+package enrollmentsystem;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnrollmentStatsChurnTest {
+    private static final int STUDENTS = 300;
+    private static final int COURSES = 30;
+    private static final int MIN_CAPACITY = 5;
+    private static final int MAX_CAPACITY = 20;
+    private static final int STEPS = 20_000;
+    private static final int VERIFY_EVERY = 500;
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(longs = {7, 42, 2024})
+    void statisticsMatchARecountThroughoutRandomChurn(long seed) throws Exception {
+        Random rnd = new Random(seed);
+        Metrics metrics = new Metrics();
+        EnrollmentRepository repo = new EnrollmentRepository();
+        EnrollmentService service = new EnrollmentService(repo, new EnrollmentEngine(repo, metrics),
+                new DataStore(dir, repo, metrics), metrics);
+        service.setRules(new EnrollmentRules(12, true));
+        for (int c = 0; c < COURSES; c++) service.addCourse(courseId(c), "Course " + c, 1 + rnd.nextInt(4), capacity(rnd), meetingTimes(rnd));
+        for (int s = 0; s < STUDENTS; s++) service.addStudent(studentId(s), "Student " + s);
+
+        for (int step = 1; step <= STEPS; step++) {
+            // a few IDs past the end, so some requests name students and courses that do not exist
+            String sid = studentId(rnd.nextInt(STUDENTS + STUDENTS / 100));
+            String cid = courseId(rnd.nextInt(COURSES + COURSES / 10));
+            int op = rnd.nextInt(100);
+            if (op < 30) {
+                service.enroll(sid, cid);
+            } else if (op < 45) {
+                service.joinWaitlist(sid, cid, rnd.nextInt(3));
+            } else if (op < 65) {
+                service.drop(sid, cid);
+            } else if (op < 75) {
+                int taken = repo.enrolledCount(cid);
+                if (repo.findCourse(cid) != null) service.updateCapacity(cid, taken + rnd.nextInt(MAX_CAPACITY - Math.min(taken, MAX_CAPACITY) + 5));
+            } else if (op < 85) {
+                if (!service.deleteStudent(sid)) service.addStudent(sid, "Student " + sid);
+            } else if (op < 90) {
+                if (!service.deleteCourse(cid)) service.addCourse(cid, "Course " + cid, 1 + rnd.nextInt(4), capacity(rnd), meetingTimes(rnd));
+            } else {
+                repo.busiestCourses(10); // reads interleaved with the changes
+            }
+            if (step % VERIFY_EVERY == 0) {
+                assertEquals(List.of(), EnrollmentStats.verify(repo), "seed " + seed + ", after step " + step);
+            }
+        }
+        service.close();
+
+        EnrollmentRepository reloaded = new EnrollmentRepository();
+        new DataStore(dir, reloaded).load();
+        assertEquals(List.of(), EnrollmentStats.verify(reloaded), "seed " + seed + ", reloaded");
+        assertEquals(repo.enrollmentCount(), reloaded.enrollmentCount(), "seed " + seed + ", reloaded enrollments");
+        assertEquals(repo.totals().getWaiting(), reloaded.totals().getWaiting(), "seed " + seed + ", reloaded waiting");
+    }
+
+    private static String studentId(int s) {
+        return String.format("S%04d", s);
+    }
+
+    private static String courseId(int c) {
+        return String.format("C%03d", c);
+    }
+
+    private static int capacity(Random rnd) {
+        return MIN_CAPACITY + rnd.nextInt(MAX_CAPACITY - MIN_CAPACITY + 1);
+    }
+
+    // One or two days, one or two hours
+    private static long meetingTimes(Random rnd) {
+        String days = "MoTuWeThFrSa";
+        StringBuilder sb = new StringBuilder();
+        int first = rnd.nextInt(6);
+        sb.append(days, 2 * first, 2 * first + 2);
+        if (rnd.nextBoolean()) {
+            int second = (first + 1 + rnd.nextInt(5)) % 6;
+            sb.append(days, 2 * second, 2 * second + 2);
+        }
+        int start = Schedule.FIRST_HOUR + rnd.nextInt(Schedule.HOURS_PER_DAY - 1);
+        return Schedule.parse(sb.append(start).append('-').append(start + 1 + rnd.nextInt(2)).toString());
+    }
+}
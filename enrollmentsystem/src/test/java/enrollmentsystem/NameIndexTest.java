@@ -0,0 +1,48 @@
+// NameIndexTest.java
+// Name normalization and search with Unicode whitespace (ideographic and em spaces), which
+// String.trim() does not remove: names and queries that start with it or consist only of it.
+
+package enrollmentsystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+    private final EnrollmentRepository repo = new EnrollmentRepository();
+
+    @BeforeEach
+    void buildIndex() {
+        repo.addStudent(new Student("S1", "Alice Reagan"));
+        assertEquals(List.of("S1"), repo.searchStudents("rea*"));
+    }
+
+    @Test
+    void normalizeStripsUnicodeWhitespace() {
+        assertEquals("bob", NameIndex.normalize("\u3000Bob"));
+        assertEquals("bob lee", NameIndex.normalize("\u2003 Bob\u3000\u3000Lee\u2003"));
+        assertEquals("", NameIndex.normalize("\u3000\u2003 "));
+        assertEquals("", NameIndex.normalize(""));
+    }
+
+    @Test
+    void namesStartingWithUnicodeWhitespaceAreIndexed() {
+        repo.addStudent(new Student("S2", "\u3000Bob"));
+        repo.renameStudent("S1", "\u2003Alice\u3000Gaor");
+        assertEquals(List.of("S2"), repo.searchStudents("bob*"));
+        assertEquals(List.of("S1"), repo.searchStudents("gaor*"));
+        assertEquals(List.of("S1"), repo.searchStudents("alice gaor"));
+    }
+
+    @Test
+    void allWhitespaceNamesAndQueriesMatchNothing() {
+        repo.addStudent(new Student("S2", "\u3000\u2003"));
+        assertEquals(List.of(), repo.searchStudents("\u3000*"));
+        assertEquals(List.of(), repo.searchStudents("\u2003\u3000"));
+        assertEquals(List.of("S1"), repo.searchStudents("\u3000alice*"));
+        assertEquals(List.of("S1"), repo.searchStudents("\u2003reagan"));
+    }
+}